@@ -0,0 +1,33 @@
+package com.stage8.wallet.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback AsyncAppender that counts the events it drops
+ *
+ * Request threads only enqueue; a single worker does the encoding and the write to stdout. When the
+ * bounded queue fills up, events are dropped instead of blocking the caller - INFO and below once the
+ * queue passes the discarding threshold, anything when it is completely full. Drops are published as
+ * the logging.async.dropped counter. The count is taken from a snapshot of the queue, so it is approximate.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    // Static because Logback, not Spring, instantiates appenders
+    private static final LongAdder DROPPED = new LongAdder();
+
+    public static long droppedEvents() {
+        return DROPPED.sum();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event)) || (remaining == 0 && isNeverBlock())) {
+            DROPPED.increment();
+        }
+        super.append(event);
+    }
+}
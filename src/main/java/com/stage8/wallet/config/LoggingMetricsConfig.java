@@ -0,0 +1,21 @@
+package com.stage8.wallet.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the number of log events dropped by the async appender (see logback-spring.xml)
+ */
+@Configuration
+public class LoggingMetricsConfig {
+
+    @Bean
+    public MeterBinder asyncLoggingMetrics() {
+        return registry -> FunctionCounter.builder("logging.async.dropped", CountingAsyncAppender.class,
+                        ignored -> CountingAsyncAppender.droppedEvents())
+                .description("Log events dropped because the async logging queue was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.stage8.wallet.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (API key Bloom filter refresh and sync, async transfer queue drain,
+ * expired idempotency key purge, hot wallet credit fold, webhook inbox drain)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,115 +1,105 @@
 package com.stage8.wallet.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.stage8.wallet.dto.PaystackWebhookPayload;
-import com.stage8.wallet.service.PaystackWebhookService;
+import com.stage8.wallet.security.WebhookSignatureVerifier;
+import com.stage8.wallet.service.WebhookInboxService;
+import com.stage8.wallet.utility.RequestBodyReader;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
+@Slf4j
 @RestController
 @RequestMapping("/wallet/paystack")
 @RequiredArgsConstructor
 @Tag(name = "Paystack Webhook", description = "Paystack webhook receiver for transaction updates")
 public class PaystackWebhookController {
 
-    private final PaystackWebhookService paystackWebhookService;
+    private static final Logger PAYLOAD_LOG = LoggerFactory.getLogger("com.stage8.wallet.webhook.payload");
+
+    @Value("${wallet.webhook.log.payload-sample-rate:0.01}")
+    private double payloadSampleRate;
+
+    private final WebhookSignatureVerifier webhookSignatureVerifier;
+    private final RequestBodyReader requestBodyReader;
+    private final WebhookInboxService webhookInboxService;
 
     @Operation(
             summary = "Paystack Webhook Receiver",
-            description = "Receives transaction updates from Paystack. Validates HMAC SHA512 signature, " +
-                    "updates transaction status, and credits wallet balance on successful payment. " +
-                    "Implements idempotency to prevent double-crediting. " +
+            description = "Receives transaction updates from Paystack. Validates HMAC SHA512 signature and stores " +
+                    "the event in a durable inbox before acknowledging it; the transaction status and wallet balance " +
+                    "are updated shortly after by a background worker. Redelivered events are acknowledged without " +
+                    "being stored twice. " +
                     " This endpoint is public (no authentication required) but validates Paystack signature.",
             hidden = false
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Webhook processed successfully"),
-            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid Paystack signature")
+            @ApiResponse(responseCode = "200", description = "Webhook accepted"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid Paystack signature"),
+            @ApiResponse(responseCode = "413", description = "Payload larger than wallet.webhook.max-body-size")
     })
     @PostMapping("/webhook")
     public ResponseEntity<?> paystackWebhook(
             HttpServletRequest request) {
         try {
-            // Read request body as string for signature validation
-            String payload = StreamUtils.copyToString(
-                    request.getInputStream(), 
-                    StandardCharsets.UTF_8
-            );
-            
-            // DEBUG: Log the incoming payload
-            System.out.println("=== WEBHOOK RECEIVED ===");
-            System.out.println("Payload: " + payload);
+            if (request.getContentLengthLong() > requestBodyReader.getMaxBodySize()) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(Map.of("status", false, "error", "Payload too large"));
+            }
+
+            // Raw body bytes in this thread's reused buffer - the signature is computed over exactly these
+            RequestBodyReader.Body payload = requestBodyReader.read(request.getInputStream());
 
             // Get Paystack signature from header
             String signature = request.getHeader("x-paystack-signature");
-            System.out.println("Signature: " + (signature != null ? signature.substring(0, Math.min(20, signature.length())) + "..." : "NULL"));
-            
             if (signature == null || signature.isEmpty()) {
-                System.out.println("ERROR: No signature provided");
+                log.warn("Webhook rejected - No signature provided");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("status", false, "error", "No signature"));
             }
 
             // Validate signature
-            boolean signatureValid = paystackWebhookService.validateSignature(payload, signature);
-            System.out.println("Signature valid: " + signatureValid);
-            
-            if (!signatureValid) {
-                System.out.println("ERROR: Invalid signature");
+            if (!webhookSignatureVerifier.verify(payload.bytes(), 0, payload.length(), signature)) {
+                log.warn("Webhook rejected - Invalid signature");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("status", false, "error", "Invalid signature"));
             }
 
-            // Parse webhook payload
-            ObjectMapper objectMapper = new ObjectMapper();
-            PaystackWebhookPayload webhookPayload = objectMapper.readValue(
-                    payload, 
-                    PaystackWebhookPayload.class
-            );
-
-            // Only process charge.success and charge.failed events
-            if (webhookPayload.getData() == null || webhookPayload.getData().getReference() == null) {
-                System.out.println("No data or reference in payload");
-                return ResponseEntity.ok(Map.of("status", true));
-            }
-
-            String event = webhookPayload.getEvent();
-            String reference = webhookPayload.getData().getReference();
-            String status = webhookPayload.getData().getStatus();
-            Long amountInKobo = webhookPayload.getData().getAmount();
-            
-            System.out.println("Event: " + event);
-            System.out.println("Reference: " + reference);
-            System.out.println("Status: " + status);
-            System.out.println("Amount: " + amountInKobo);
-
-            // Process only charge events
-            if (event != null && (event.equals("charge.success") || event.equals("charge.failed"))) {
-                System.out.println("Processing webhook event...");
-                paystackWebhookService.processWebhookEvent(reference, status, amountInKobo);
-                System.out.println("Webhook processed successfully!");
+            // Full payloads are large and carry customer details - log only a sample of them
+            if (payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate
+                    && PAYLOAD_LOG.isInfoEnabled()) {
+                PAYLOAD_LOG.atInfo()
+                        .addKeyValue("bytes", payload.length())
+                        .log(new String(payload.bytes(), 0, payload.length(), StandardCharsets.UTF_8));
             }
 
+            // Store only - the inbox workers apply the event, so Paystack never waits on wallet updates
+            webhookInboxService.receive(payload.bytes(), 0, payload.length());
             return ResponseEntity.ok(Map.of("status", true));
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Webhook rejected - {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("status", false, "error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("=== WEBHOOK ERROR ===");
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace();
+            // Not stored - a non-2xx makes Paystack deliver the event again
+            log.error("Failed to store webhook", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", false, "error", e.getMessage() != null ? e.getMessage() : "Unknown error"));
         }
     }
 }
-
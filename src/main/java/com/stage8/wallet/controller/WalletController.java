@@ -1,20 +1,30 @@
 package com.stage8.wallet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stage8.wallet.dto.BulkTransferRequest;
+import com.stage8.wallet.dto.BulkTransferResponse;
 import com.stage8.wallet.dto.DepositRequest;
 import com.stage8.wallet.dto.DepositResponse;
 import com.stage8.wallet.dto.DepositStatusResponse;
+import com.stage8.wallet.dto.TransactionHistoryPageResponse;
 import com.stage8.wallet.dto.TransactionHistoryResponse;
 import com.stage8.wallet.dto.TransferRequest;
 import com.stage8.wallet.dto.TransferResponse;
+import com.stage8.wallet.dto.TransferStatusResponse;
+import com.stage8.wallet.exception.TransferQueueFullException;
+import com.stage8.wallet.model.entity.QueuedTransferEntity;
 import com.stage8.wallet.model.entity.TransactionEntity;
-import com.stage8.wallet.model.entity.UserEntity;
-import com.stage8.wallet.model.entity.WalletEntity;
 import com.stage8.wallet.model.enums.Permission;
+import com.stage8.wallet.model.enums.TransactionStatus;
 import com.stage8.wallet.model.enums.TransactionType;
 import com.stage8.wallet.repository.TransactionRepository;
-import com.stage8.wallet.repository.UserRepository;
 import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.service.AsyncTransferService;
+import com.stage8.wallet.service.BulkTransferService;
 import com.stage8.wallet.service.DepositService;
+import com.stage8.wallet.service.IdempotencyService;
+import com.stage8.wallet.service.TransactionExportService;
+import com.stage8.wallet.service.TransactionHistoryService;
 import com.stage8.wallet.service.TransferService;
 import com.stage8.wallet.utility.PermissionChecker;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,14 +37,21 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -44,10 +61,15 @@ import java.util.stream.Collectors;
 public class WalletController {
 
     private final DepositService depositService;
-    private final UserRepository userRepository;
     private final WalletRepository walletRepository;
     private final TransferService transferService;
+    private final BulkTransferService bulkTransferService;
+    private final AsyncTransferService asyncTransferService;
+    private final IdempotencyService idempotencyService;
     private final TransactionRepository transactionRepository;
+    private final TransactionHistoryService transactionHistoryService;
+    private final TransactionExportService transactionExportService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Initialize Deposit",
@@ -62,10 +84,19 @@ public class WalletController {
             ),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
-            @ApiResponse(responseCode = "403", description = "Forbidden - DEPOSIT permission required")
+            @ApiResponse(responseCode = "403", description = "Forbidden - DEPOSIT permission required"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request")
     })
     @PostMapping("/deposit")
-    public ResponseEntity<?> deposit(@Valid @RequestBody DepositRequest request) {
+    public ResponseEntity<?> deposit(
+            @Valid @RequestBody DepositRequest request,
+            @Parameter(description = "Client-chosen key; retries with the same key replay the first response instead of creating another deposit")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, "deposit", request, () -> processDeposit(request));
+    }
+
+    private ResponseEntity<?> processDeposit(DepositRequest request) {
         try {
             // Get authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -79,14 +110,12 @@ public class WalletController {
                         .body(Map.of("error", "Insufficient permissions. DEPOSIT permission required."));
             }
 
-            // Get user
+            // The authenticated principal already carries the user id - no user lookup needed
             Long userId = Long.parseLong(authentication.getName());
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
 
             // Initialize deposit
             DepositService.DepositResult result = depositService.initializeDeposit(
-                    user,
+                    userId,
                     request.getAmount()
             );
 
@@ -132,17 +161,15 @@ public class WalletController {
                         .body(Map.of("error", "Insufficient permissions. READ permission required."));
             }
 
-            // Get user
+            // The authenticated principal already carries the user id - no user lookup needed
             Long userId = Long.parseLong(authentication.getName());
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Get wallet
-            WalletEntity wallet = walletRepository.findByUser_Id(user.getId())
+            // Single-column read of the balance
+            Long balance = walletRepository.findBalanceByUserId(userId)
                     .orElseThrow(() -> new RuntimeException("Wallet not found"));
 
             // Build response with just balance
-            return ResponseEntity.ok(Map.of("balance", wallet.getBalance()));
+            return ResponseEntity.ok(Map.of("balance", balance));
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -153,8 +180,9 @@ public class WalletController {
     @Operation(
             summary = "Wallet-to-Wallet Transfer",
             description = "Transfers funds from the authenticated user's wallet to another wallet. " +
-                    "Validates balance, prevents self-transfer, and creates transaction records for both parties. " +
-                    "Transaction is atomic (all-or-nothing).",
+                    "Validates balance, prevents self-transfer, and posts a balanced journal entry (one debit, one credit) to the ledger. " +
+                    "Transaction is atomic (all-or-nothing). " +
+                    "With async=true the transfer is queued instead and 202 is returned with a reference to poll at GET /wallet/transfer/{reference}.",
             security = {@SecurityRequirement(name = "Bearer Authentication"), @SecurityRequirement(name = "API Key Authentication")}
     )
     @ApiResponses(value = {
@@ -163,12 +191,30 @@ public class WalletController {
                     description = "Transfer completed successfully",
                     content = @Content(schema = @Schema(implementation = TransferResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Transfer queued (async=true)",
+                    content = @Content(schema = @Schema(implementation = TransferResponse.class))
+            ),
             @ApiResponse(responseCode = "400", description = "Invalid request (insufficient balance, recipient not found, self-transfer)"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
-            @ApiResponse(responseCode = "403", description = "Forbidden - TRANSFER permission required")
+            @ApiResponse(responseCode = "403", description = "Forbidden - TRANSFER permission required"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still being processed"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request"),
+            @ApiResponse(responseCode = "503", description = "Transfer queue is full (async=true)")
     })
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@Valid @RequestBody TransferRequest request) {
+    public ResponseEntity<?> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @Parameter(description = "Queue the transfer and return 202 instead of executing it on the request thread")
+            @RequestParam(required = false, defaultValue = "false") boolean async,
+            @Parameter(description = "Client-chosen key; retries with the same key replay the first response instead of transferring again")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, async ? "transfer:async" : "transfer", request,
+                () -> processTransfer(request, async));
+    }
+
+    private ResponseEntity<?> processTransfer(TransferRequest request, boolean async) {
         try {
             // Get authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -182,13 +228,22 @@ public class WalletController {
                         .body(Map.of("error", "Insufficient permissions. TRANSFER permission required."));
             }
 
-            // Get user
+            // The authenticated principal already carries the user id - no user lookup needed
             Long userId = Long.parseLong(authentication.getName());
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            if (async) {
+                // Only the queue row is written here - wallet locks are taken later by a worker
+                String reference = asyncTransferService.submit(userId, request.getWalletNumber(), request.getAmount());
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(TransferResponse.builder()
+                                .status("queued")
+                                .message("Transfer queued")
+                                .reference(reference)
+                                .build());
+            }
 
             // Process transfer
-            transferService.transfer(user, request.getWalletNumber(), request.getAmount());
+            transferService.transfer(userId, request.getWalletNumber(), request.getAmount());
 
             // Build response
             TransferResponse response = TransferResponse.builder()
@@ -213,28 +268,185 @@ public class WalletController {
             }
             return ResponseEntity.badRequest()
                     .body(Map.of("error", errorMessage != null ? errorMessage : "Invalid transfer request"));
+        } catch (TransferQueueFullException e) {
+            // Async queue at capacity
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to process transfer: " + e.getMessage()));
         }
     }
 
+    /**
+     * Runs the action through the Idempotency-Key store when the client sent a key.
+     * Unauthenticated requests skip it - the action rejects them without claiming the key.
+     */
+    private ResponseEntity<?> idempotent(String idempotencyKey, String operation, Object request,
+                                         Supplier<ResponseEntity<?>> action) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (idempotencyKey == null || authentication == null || authentication.getName() == null) {
+            return action.get();
+        }
+        return idempotencyService.execute(Long.parseLong(authentication.getName()), idempotencyKey,
+                operation, request, action);
+    }
+
+    @Operation(
+            summary = "Get Transfer Status",
+            description = "Retrieves the status of a transfer queued with async=true: queued, processing, success or failed. " +
+                    "Failed transfers include the reason.",
+            security = {@SecurityRequirement(name = "Bearer Authentication"), @SecurityRequirement(name = "API Key Authentication")}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Transfer status retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = TransferStatusResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - READ permission required or transfer does not belong to user"),
+            @ApiResponse(responseCode = "404", description = "Transfer not found")
+    })
+    @GetMapping("/transfer/{reference}")
+    public ResponseEntity<?> getTransferStatus(
+            @Parameter(description = "Reference returned when the transfer was queued", required = true)
+            @PathVariable String reference) {
+        try {
+            // Get authentication
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getName() == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            // Check permission (JWT allows all, API key needs READ permission)
+            if (!PermissionChecker.hasPermission(authentication, Permission.READ)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Insufficient permissions. READ permission required."));
+            }
+
+            QueuedTransferEntity transfer = asyncTransferService.findByReference(reference)
+                    .orElse(null);
+            if (transfer == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Transfer not found"));
+            }
+
+            // Verify the transfer was submitted by the authenticated user
+            Long userId = Long.parseLong(authentication.getName());
+            if (!transfer.getSenderUserId().equals(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Transfer does not belong to authenticated user"));
+            }
+
+            TransferStatusResponse response = TransferStatusResponse.builder()
+                    .reference(transfer.getReference())
+                    .status(transfer.getStatus().name().toLowerCase())
+                    .amount(transfer.getAmount())
+                    .walletNumber(transfer.getRecipientWalletNumber())
+                    .error(transfer.getFailureReason())
+                    .build();
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to get transfer status: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Bulk Transfer (Payout)",
+            description = "Pays many recipients from the authenticated user's wallet in one call. " +
+                    "The sender is debited once for the total and the payout is posted as a single journal entry. " +
+                    "mode=all_or_nothing (default) rejects the whole batch if any item cannot be paid; " +
+                    "mode=best_effort pays every payable item, funding them in request order, and reports the rest as failed.",
+            security = {@SecurityRequirement(name = "Bearer Authentication"), @SecurityRequirement(name = "API Key Authentication")}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed - see per-item results",
+                    content = @Content(schema = @Schema(implementation = BulkTransferResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid request, or all_or_nothing batch rejected (per-item results included)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - TRANSFER permission required")
+    })
+    @PostMapping("/transfer/bulk")
+    public ResponseEntity<?> bulkTransfer(@Valid @RequestBody BulkTransferRequest request) {
+        try {
+            // Get authentication
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getName() == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            // Check permission (JWT allows all, API key needs TRANSFER permission)
+            if (!PermissionChecker.hasPermission(authentication, Permission.TRANSFER)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "Insufficient permissions. TRANSFER permission required."));
+            }
+
+            Long userId = Long.parseLong(authentication.getName());
+            BulkTransferService.Mode mode = request.getMode() == null || request.getMode().isBlank()
+                    ? BulkTransferService.Mode.ALL_OR_NOTHING
+                    : parseEnum(BulkTransferService.Mode.class, "mode", request.getMode());
+            List<BulkTransferService.Item> items = request.getItems().stream()
+                    .map(item -> new BulkTransferService.Item(item.getWalletNumber(), item.getAmount()))
+                    .toList();
+
+            BulkTransferService.Result result = bulkTransferService.transfer(userId, items, mode);
+
+            BulkTransferResponse response = BulkTransferResponse.from(result);
+            return result.applied() || mode == BulkTransferService.Mode.BEST_EFFORT
+                    ? ResponseEntity.ok(response)
+                    : ResponseEntity.badRequest().body(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Invalid bulk transfer request"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to process bulk transfer: " + e.getMessage()));
+        }
+    }
+
     @Operation(
             summary = "Get Transaction History",
-            description = "Retrieves all transactions for the authenticated user. Returns deposit and transfer transactions with status.",
+            description = "Retrieves the authenticated user's transactions, newest first, one page at a time. " +
+                    "Pass the returned next_cursor to fetch the following page; it is null on the last page. " +
+                    "Optional filters are applied server-side; keep them unchanged while following a cursor.",
             security = {@SecurityRequirement(name = "Bearer Authentication"), @SecurityRequirement(name = "API Key Authentication")}
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Transaction history retrieved successfully",
-                    content = @Content(schema = @Schema(implementation = TransactionHistoryResponse.class))
+                    content = @Content(schema = @Schema(implementation = TransactionHistoryPageResponse.class))
             ),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit or filter"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - READ permission required")
     })
     @GetMapping("/transactions")
-    public ResponseEntity<?> getTransactions() {
+    public ResponseEntity<?> getTransactions(
+            @Parameter(description = "Cursor from the previous page; omit for the newest transactions")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (default 50, capped at the configured maximum)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Transaction type: deposit or transfer")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Transaction status: pending, success or failed")
+            @RequestParam(required = false) String status,
+            @Parameter(description = "Created at or after (ISO date-time, inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before (ISO date-time, exclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Minimum amount in kobo (compared by magnitude)")
+            @RequestParam(name = "min_amount", required = false) Long minAmount,
+            @Parameter(description = "Maximum amount in kobo (compared by magnitude)")
+            @RequestParam(name = "max_amount", required = false) Long maxAmount) {
         try {
             // Get authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -248,37 +460,105 @@ public class WalletController {
                         .body(Map.of("error", "Insufficient permissions. READ permission required."));
             }
 
-            // Get user
+            // The authenticated principal already carries the user id - no user lookup needed
             Long userId = Long.parseLong(authentication.getName());
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Get all transactions for the user
-            List<TransactionEntity> transactions = transactionRepository.findByUser_Id(user.getId());
+            TransactionHistoryService.HistoryFilter filter = new TransactionHistoryService.HistoryFilter(
+                    parseEnum(TransactionType.class, "type filter", type),
+                    parseEnum(TransactionStatus.class, "status filter", status),
+                    from, to, minAmount, maxAmount);
+
+            // One page of matching rows, read as projections straight from the index
+            TransactionHistoryService.HistoryPage page =
+                    transactionHistoryService.getHistory(userId, filter, cursor, limit);
 
             // Map to response DTOs
-            List<TransactionHistoryResponse> response = transactions.stream()
-                    .map(transaction -> TransactionHistoryResponse.builder()
-                            .type(transaction.getType() != null 
-                                    ? transaction.getType().name().toLowerCase() 
-                                    : null)
-                            .amount(transaction.getAmount() != null 
-                                    ? Math.abs(transaction.getAmount()) // Return absolute value
-                                    : null)
-                            .status(transaction.getStatus() != null 
-                                    ? transaction.getStatus().name().toLowerCase() 
-                                    : null)
-                            .build())
+            List<TransactionHistoryResponse> transactions = page.transactions().stream()
+                    .map(TransactionHistoryResponse::from)
                     .collect(Collectors.toList());
 
+            TransactionHistoryPageResponse response = TransactionHistoryPageResponse.builder()
+                    .transactions(transactions)
+                    .nextCursor(page.nextCursor())
+                    .build();
+
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to get transactions: " + e.getMessage()));
         }
     }
 
+    private static <E extends Enum<E>> E parseEnum(Class<E> enumType, String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(enumType, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    @Operation(
+            summary = "Export Transaction History",
+            description = "Streams the authenticated user's complete transaction history, newest first, as NDJSON " +
+                    "(one JSON object per line) or CSV. Rows are written as they are read, so exports of any size " +
+                    "use constant server memory.",
+            security = {@SecurityRequirement(name = "Bearer Authentication"), @SecurityRequirement(name = "API Key Authentication")}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unsupported export format"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - READ permission required")
+    })
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "Export format: ndjson (default) or csv")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        // Only StreamingResponseBody bodies are allowed here, so errors are streamed as JSON too
+        try {
+            // Get authentication
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || authentication.getName() == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+
+            // Check permission (JWT allows all, API key needs READ permission)
+            if (!PermissionChecker.hasPermission(authentication, Permission.READ)) {
+                return errorBody(HttpStatus.FORBIDDEN, "Insufficient permissions. READ permission required.");
+            }
+
+            Long userId = Long.parseLong(authentication.getName());
+            TransactionExportService.ExportFormat exportFormat = TransactionExportService.ExportFormat.parse(format);
+
+            // Written on an async thread after this method returns - the request thread is not held
+            StreamingResponseBody body = out -> transactionExportService.export(userId, exportFormat, out);
+
+            return ResponseEntity.ok()
+                    .contentType(exportFormat.getMediaType())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"transactions." + exportFormat.getFileExtension() + "\"")
+                    .body(body);
+
+        } catch (IllegalArgumentException e) {
+            return errorBody(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            return errorBody(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to export transactions: " + e.getMessage());
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorBody(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, Map.of("error", message)));
+    }
+
     @Operation(
             summary = "Get Deposit Status",
             description = "Retrieves the status of a deposit transaction by reference. " +
@@ -0,0 +1,43 @@
+package com.stage8.wallet.controller;
+
+import com.stage8.wallet.service.WebhookInboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator view of the Paystack webhook inbox at /actuator/webhookinbox
+ *
+ * Not exposed over HTTP unless listed in management.endpoints.web.exposure.include, and then
+ * only to the users in wallet.operator.user-ids (see OperatorAuthorizationManager).
+ * POST replays every failed event, or only the one whose id is given.
+ */
+@Component
+@Endpoint(id = "webhookinbox")
+@RequiredArgsConstructor
+public class WebhookInboxEndpoint {
+
+    private final WebhookInboxService webhookInboxService;
+
+    @ReadOperation
+    public Map<String, Object> backlog() {
+        WebhookInboxService.Backlog backlog = webhookInboxService.backlog();
+        return Map.of(
+                "pending", backlog.pending(),
+                "failed", backlog.failed(),
+                "lagSeconds", backlog.lag().toSeconds());
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Long id) {
+        if (id != null) {
+            return Map.of("replayed", webhookInboxService.replayFailed(id) ? 1 : 0);
+        }
+        return Map.of("replayed", webhookInboxService.replayFailed());
+    }
+}
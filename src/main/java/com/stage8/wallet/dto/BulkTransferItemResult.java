@@ -0,0 +1,33 @@
+package com.stage8.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkTransferItemResult {
+
+    /**
+     * Position of the item in the request
+     */
+    private Integer index;
+
+    @JsonProperty("wallet_number")
+    private String walletNumber;
+
+    private Long amount;
+
+    /**
+     * success, failed, or skipped when an all_or_nothing batch was rejected
+     */
+    private String status;
+
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.stage8.wallet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransferRequest {
+
+    /**
+     * all_or_nothing (default) or best_effort
+     */
+    private String mode;
+
+    @NotEmpty(message = "At least one transfer item is required")
+    @Valid
+    private List<BulkTransferItem> items;
+}
@@ -0,0 +1,60 @@
+package com.stage8.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stage8.wallet.service.BulkTransferService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Locale;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkTransferResponse {
+
+    /**
+     * success, partial (some items failed) or rejected (nothing was paid)
+     */
+    private String status;
+
+    /**
+     * Journal reference of the payout, null when nothing was paid
+     */
+    private String reference;
+
+    private String mode;
+
+    @JsonProperty("total_amount")
+    private Long totalAmount;
+
+    private Long succeeded;
+
+    private Long failed;
+
+    private List<BulkTransferItemResult> items;
+
+    public static BulkTransferResponse from(BulkTransferService.Result result) {
+        String status = !result.applied() ? "rejected" : result.failed() > 0 ? "partial" : "success";
+        return BulkTransferResponse.builder()
+                .status(status)
+                .reference(result.reference())
+                .mode(result.mode().name().toLowerCase(Locale.ROOT))
+                .totalAmount(result.totalAmount())
+                .succeeded(result.succeeded())
+                .failed(result.failed())
+                .items(result.items().stream()
+                        .map(item -> BulkTransferItemResult.builder()
+                                .index(item.index())
+                                .walletNumber(item.walletNumber())
+                                .amount(item.amount())
+                                .status(item.status().name().toLowerCase(Locale.ROOT))
+                                .error(item.error())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
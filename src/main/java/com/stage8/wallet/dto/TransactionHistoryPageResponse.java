@@ -0,0 +1,24 @@
+package com.stage8.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryPageResponse {
+
+    private List<TransactionHistoryResponse> transactions;
+
+    /**
+     * Opaque cursor for the next (older) page; null on the last page
+     */
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
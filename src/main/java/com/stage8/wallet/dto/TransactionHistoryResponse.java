@@ -1,10 +1,14 @@
 package com.stage8.wallet.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stage8.wallet.model.projection.TransactionSummary;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,5 +20,21 @@ public class TransactionHistoryResponse {
      */
     private Long amount;
     private String status;
-}
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
 
+    public static TransactionHistoryResponse from(TransactionSummary transaction) {
+        return TransactionHistoryResponse.builder()
+                .type(transaction.type() != null
+                        ? transaction.type().name().toLowerCase()
+                        : null)
+                .amount(transaction.amount() != null
+                        ? Math.abs(transaction.amount()) // Return absolute value
+                        : null)
+                .status(transaction.status() != null
+                        ? transaction.status().name().toLowerCase()
+                        : null)
+                .createdAt(transaction.createdAt())
+                .build();
+    }
+}
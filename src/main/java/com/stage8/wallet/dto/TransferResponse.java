@@ -1,5 +1,6 @@
 package com.stage8.wallet.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,5 +13,10 @@ import lombok.NoArgsConstructor;
 public class TransferResponse {
     private String status;
     private String message;
+    /**
+     * Only set for queued transfers - poll GET /wallet/transfer/{reference} with it
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String reference;
 }
 
@@ -0,0 +1,31 @@
+package com.stage8.wallet.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransferStatusResponse {
+    private String reference;
+    /**
+     * queued, processing, success or failed
+     */
+    private String status;
+    /**
+     * Amount in kobo (integer)
+     */
+    private Long amount;
+    @JsonProperty("wallet_number")
+    private String walletNumber;
+    /**
+     * Why the transfer failed, only present when status is failed
+     */
+    private String error;
+}
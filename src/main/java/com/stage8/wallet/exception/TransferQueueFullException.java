@@ -0,0 +1,11 @@
+package com.stage8.wallet.exception;
+
+public class TransferQueueFullException extends RuntimeException {
+    public TransferQueueFullException() {
+        super("Transfer queue is full, try again later");
+    }
+
+    public TransferQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -11,7 +11,7 @@ import java.time.Instant;
 import java.util.Set;
 
 @Entity
-@Table(name = "apiKeys")
+@Table(name = "apiKeys", indexes = @Index(name = "idx_api_keys_created_at", columnList = "created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +19,8 @@ import java.util.Set;
 public class ApiKeyEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "api_keys_id")
+    @SequenceGenerator(name = "api_keys_id", sequenceName = "api_keys_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,69 @@
+package com.stage8.wallet.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An Idempotency-Key a user sent with a money-moving request, with the response it produced.
+ * The unique (user_id, idempotency_key) constraint is what claims a key: the first insert wins
+ * and every retry finds the row instead of repeating the work.
+ */
+@Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_user_key", columnNames = {"user_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKeyEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_key_entity_id")
+    @SequenceGenerator(name = "idempotency_key_entity_id", sequenceName = "idempotency_key_entity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the operation and request body - a key may not be reused for a different request
+     */
+    @Column(nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * HTTP status of the stored response, null while the first request is still running
+     */
+    private Integer responseStatus;
+
+    /**
+     * JSON body of the stored response
+     */
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * When the current owner claimed the key. A claim without a response older than
+     * wallet.idempotency.claim-timeout is abandoned (its owner died) and the next retry takes it over.
+     * Null on rows claimed before the column existed - createdAt stands in.
+     */
+    @Builder.Default
+    private LocalDateTime claimedAt = LocalDateTime.now();
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,39 @@
+package com.stage8.wallet.model.entity;
+
+import com.stage8.wallet.model.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Header of a double-entry journal entry.
+ * Its postings are the TransactionEntity rows pointing at it; their amounts always sum to zero.
+ * Append-only - neither the entry nor its postings are ever updated.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalEntryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_entry_entity_id")
+    @SequenceGenerator(name = "journal_entry_entity_id", sequenceName = "journal_entry_entity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, updatable = false)
+    private String reference;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private TransactionType type;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,48 @@
+package com.stage8.wallet.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A credit to a hot wallet that has been posted to the ledger but not yet added to the wallet balance.
+ * Rows are insert-only until the hot wallet folder adds them to the balance and deletes them.
+ * walletId is deliberately not a foreign key: in PostgreSQL the FK check would share-lock the
+ * wallet row, which is exactly the contention this table exists to avoid.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_pending_credit_wallet", columnList = "wallet_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingCreditEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_credit_entity_id")
+    @SequenceGenerator(name = "pending_credit_entity_id", sequenceName = "pending_credit_entity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long walletId;
+
+    /**
+     * Amount in kobo (integer), always positive
+     */
+    @Column(nullable = false, updatable = false)
+    private Long amount;
+
+    /**
+     * Reference of the journal entry that posted this credit
+     */
+    @Column(nullable = false, updatable = false)
+    private String reference;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,67 @@
+package com.stage8.wallet.model.entity;
+
+import com.stage8.wallet.model.enums.QueuedTransferStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transfer accepted by the async endpoint and waiting for, or done with, execution.
+ * The row doubles as the durable work queue and as the status record clients poll by reference.
+ * The ledger entry written by the worker carries the same reference.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueuedTransferEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "queued_transfer_entity_id")
+    @SequenceGenerator(name = "queued_transfer_entity_id", sequenceName = "queued_transfer_entity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, updatable = false)
+    private String reference;
+
+    /**
+     * Plain id rather than a relation - the worker never needs the user row
+     */
+    @Column(nullable = false, updatable = false)
+    private Long senderUserId;
+
+    @Column(nullable = false, updatable = false)
+    private String recipientWalletNumber;
+
+    /**
+     * Amount in kobo (integer)
+     */
+    @Column(nullable = false, updatable = false)
+    private Long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private QueuedTransferStatus status;
+
+    /**
+     * Number of times a worker has claimed this transfer
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    private String failureReason;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime completedAt;
+}
@@ -11,20 +11,53 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * A ledger posting and the user-facing history row in one.
+ * Every SUCCESS row moves the balance of walletId by amount, so the maintained wallet balance can be
+ * reconciled against the sum of its postings. Transfers post one debit and one credit under a shared
+ * journal entry; deposits post a single credit once Paystack confirms them.
+ */
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Table(indexes = {
+        // Keyset pagination of a user's history: newest first, id breaks createdAt ties
+        @Index(name = "idx_transaction_user_created_id", columnList = "user_id, created_at DESC, id DESC"),
+        // Ledger balance of a wallet
+        @Index(name = "idx_transaction_wallet", columnList = "wallet_id"),
+        @Index(name = "idx_transaction_journal_entry", columnList = "journal_entry_id")
+})
 public class TransactionEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence: ids are reserved 50 at a time, so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_entity_id")
+    @SequenceGenerator(name = "transaction_entity_id", sequenceName = "transaction_entity_seq", allocationSize = 50)
     private Long id;
 
+    /**
+     * Paystack reference of a deposit. Transfer postings have none - their reference is on the journal entry.
+     */
+    @Column(unique = true)
     private String reference;
 
-    @ManyToOne
+    /**
+     * Journal entry grouping the postings of one transfer; null for deposits
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    private JournalEntryEntity journalEntry;
+
+    /**
+     * Wallet whose balance this posting moves; set once the posting is settled
+     */
+    private Long walletId;
+
+    /**
+     * Lazy - history and status reads only need the owner's id, which the proxy holds without a join
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     private UserEntity user;
 
     @Enumerated(EnumType.STRING)
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.*;
 
 @Entity
@@ -15,7 +16,8 @@ import lombok.*;
 public class UserEntity {
 
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_entity_id")
+        @SequenceGenerator(name = "user_entity_id", sequenceName = "user_entity_seq", allocationSize = 50)
         private Long id;
 
         private String email;
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
@@ -14,12 +15,14 @@ import lombok.NoArgsConstructor;
 public class WalletEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_entity_id")
+    @SequenceGenerator(name = "wallet_entity_id", sequenceName = "wallet_entity_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     private UserEntity user;
 
+    @Column(unique = true)
     private String walletNumber;
 
     /**
@@ -27,4 +30,13 @@ public class WalletEntity {
      */
     @Builder.Default
     private Long balance = 0L;
+
+    /**
+     * Optimistic lock version, also bumped by the conditional balance updates
+     * so that every balance change is visible to optimistic writers
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
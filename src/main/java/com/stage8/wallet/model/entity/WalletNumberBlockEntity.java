@@ -0,0 +1,30 @@
+package com.stage8.wallet.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hi-lo counter for wallet number issuance.
+ * Each node reserves the next block index here and hands out the numbers in that block from memory.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletNumberBlockEntity {
+
+    @Id
+    private String name;
+
+    /**
+     * Index of the next block that has not been handed to any node
+     */
+    @Column(nullable = false)
+    private Long nextBlock;
+}
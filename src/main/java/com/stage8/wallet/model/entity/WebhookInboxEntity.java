@@ -0,0 +1,80 @@
+package com.stage8.wallet.model.entity;
+
+import com.stage8.wallet.model.enums.WebhookInboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A verified Paystack webhook, stored before it is acknowledged and applied later by an inbox worker.
+ * The unique (event, reference) pair turns Paystack's redeliveries into no-ops at the door.
+ * The fields the worker needs are parsed into columns on receipt; the raw body is kept for audit and replay.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_webhook_inbox_event_reference", columnNames = {"event", "reference"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookInboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_inbox_entity_id")
+    @SequenceGenerator(name = "webhook_inbox_entity_id", sequenceName = "webhook_inbox_entity_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String event;
+
+    /**
+     * Paystack transaction reference - the deposit's reference
+     */
+    @Column(nullable = false, updatable = false)
+    private String reference;
+
+    /**
+     * Payment status as reported by Paystack
+     */
+    @Column(updatable = false)
+    private String paymentStatus;
+
+    /**
+     * Amount in kobo as reported by Paystack
+     */
+    @Column(updatable = false)
+    private Long amount;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookInboxStatus status;
+
+    /**
+     * Number of times a worker has claimed this event
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    private String failureReason;
+
+    @Builder.Default
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime receivedAt = LocalDateTime.now();
+
+    /**
+     * Earliest time a worker may claim the event; pushed back after each failed attempt
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime claimedAt;
+
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,10 @@
+package com.stage8.wallet.model.enums;
+
+public enum QueuedTransferStatus {
+
+    QUEUED,
+    PROCESSING,
+    SUCCESS,
+    FAILED
+
+}
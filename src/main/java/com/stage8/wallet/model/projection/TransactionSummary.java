@@ -0,0 +1,16 @@
+package com.stage8.wallet.model.projection;
+
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * History row built directly by a constructor expression - no entity or user is ever instantiated
+ */
+public record TransactionSummary(Long id,
+                                 TransactionType type,
+                                 Long amount,
+                                 TransactionStatus status,
+                                 LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.stage8.wallet.model.projection;
+
+/**
+ * Wallet identifiers together with the wallet number they were looked up by
+ */
+public interface WalletNumberRef extends WalletRef {
+
+    String getWalletNumber();
+}
@@ -0,0 +1,11 @@
+package com.stage8.wallet.model.projection;
+
+/**
+ * Identifiers of a wallet and its owner, loaded without hydrating the entity
+ */
+public interface WalletRef {
+
+    Long getId();
+
+    Long getUserId();
+}
@@ -2,7 +2,10 @@ package com.stage8.wallet.repository;
 
 import com.stage8.wallet.model.entity.ApiKeyEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +14,10 @@ public interface ApiKeyRepository extends JpaRepository<ApiKeyEntity, Long> {
     List<ApiKeyEntity> findByOwnerId(Long ownerId);
     List<ApiKeyEntity> findByOwnerIdAndRevokedFalse(Long ownerId);
     Optional<ApiKeyEntity> findByKeyHash(String keyHash);
+
+    @Query("SELECT k.keyHash FROM ApiKeyEntity k")
+    List<String> findAllKeyHashes();
+
+    @Query("SELECT k.keyHash FROM ApiKeyEntity k WHERE k.createdAt >= :since")
+    List<String> findKeyHashesCreatedSince(@Param("since") Instant since);
 }
@@ -0,0 +1,42 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, Long> {
+
+    Optional<IdempotencyKeyEntity> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Stores the response of a claimed key
+     *
+     * @return number of rows updated (0 when the claim was purged in the meantime)
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKeyEntity k SET k.responseStatus = :responseStatus, k.responseBody = :responseBody WHERE k.id = :id")
+    int complete(@Param("id") Long id,
+                 @Param("responseStatus") Integer responseStatus,
+                 @Param("responseBody") String responseBody);
+
+    /**
+     * Takes over a claim whose owner stopped before storing a response
+     *
+     * @return 1 if this caller now owns the claim, 0 if it completed, is still fresh or another retry took it
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyKeyEntity k SET k.claimedAt = :now WHERE k.id = :id AND k.responseStatus IS NULL " +
+            "AND (k.claimedAt < :staleBefore OR (k.claimedAt IS NULL AND k.createdAt < :staleBefore))")
+    int reclaim(@Param("id") Long id,
+                @Param("staleBefore") LocalDateTime staleBefore,
+                @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKeyEntity k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
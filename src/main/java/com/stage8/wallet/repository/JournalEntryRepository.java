@@ -0,0 +1,15 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.JournalEntryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface JournalEntryRepository extends JpaRepository<JournalEntryEntity, Long> {
+
+    /**
+     * Sum of the entry's postings - zero for every well-formed entry
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t WHERE t.journalEntry.id = :journalEntryId")
+    long sumPostings(@Param("journalEntryId") Long journalEntryId);
+}
@@ -0,0 +1,12 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.PendingCreditEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PendingCreditRepository extends JpaRepository<PendingCreditEntity, Long> {
+
+    List<PendingCreditEntity> findByWalletIdOrderByIdAsc(Long walletId, Limit limit);
+}
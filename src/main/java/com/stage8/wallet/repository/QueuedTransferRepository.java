@@ -0,0 +1,62 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.QueuedTransferEntity;
+import com.stage8.wallet.model.enums.QueuedTransferStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface QueuedTransferRepository extends JpaRepository<QueuedTransferEntity, Long> {
+
+    Optional<QueuedTransferEntity> findByReference(String reference);
+
+    long countByStatus(QueuedTransferStatus status);
+
+    /**
+     * Locks the oldest transfers in the given status with FOR UPDATE SKIP LOCKED (lock timeout -2), so
+     * concurrent workers - on this node or others - each claim a different batch without waiting
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<QueuedTransferEntity> findByStatusOrderByIdAsc(QueuedTransferStatus status, Limit limit);
+
+    /**
+     * Records the outcome of a claimed transfer
+     *
+     * @return number of rows updated (0 when the transfer is no longer being processed)
+     */
+    @Modifying
+    @Query("UPDATE QueuedTransferEntity q SET q.status = :status, q.failureReason = :failureReason, q.completedAt = :completedAt " +
+            "WHERE q.id = :id AND q.status = com.stage8.wallet.model.enums.QueuedTransferStatus.PROCESSING")
+    int complete(@Param("id") Long id,
+                 @Param("status") QueuedTransferStatus status,
+                 @Param("failureReason") String failureReason,
+                 @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Puts a claimed transfer back on the queue after a lock conflict
+     */
+    @Modifying
+    @Query("UPDATE QueuedTransferEntity q SET q.status = com.stage8.wallet.model.enums.QueuedTransferStatus.QUEUED " +
+            "WHERE q.id = :id AND q.status = com.stage8.wallet.model.enums.QueuedTransferStatus.PROCESSING")
+    int requeue(@Param("id") Long id);
+
+    /**
+     * Requeues transfers whose worker died mid-batch. Safe because a transfer and its
+     * SUCCESS status commit together - a row still PROCESSING never moved any money.
+     */
+    @Modifying
+    @Query("UPDATE QueuedTransferEntity q SET q.status = com.stage8.wallet.model.enums.QueuedTransferStatus.QUEUED " +
+            "WHERE q.status = com.stage8.wallet.model.enums.QueuedTransferStatus.PROCESSING AND q.claimedAt < :claimedBefore")
+    int requeueStale(@Param("claimedBefore") LocalDateTime claimedBefore);
+}
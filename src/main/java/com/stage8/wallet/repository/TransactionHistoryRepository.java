@@ -0,0 +1,19 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom fragment of TransactionRepository: Specification-filtered history read as projections
+ */
+public interface TransactionHistoryRepository {
+
+    /**
+     * Matching transactions newest first (createdAt, then id, descending), at most limit rows.
+     * Rows are built with a constructor expression, so no entity is instantiated.
+     */
+    List<TransactionSummary> findHistory(Specification<TransactionEntity> specification, int limit);
+}
@@ -0,0 +1,39 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TransactionSummary> findHistory(Specification<TransactionEntity> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionSummary> query = cb.createQuery(TransactionSummary.class);
+        Root<TransactionEntity> root = query.from(TransactionEntity.class);
+
+        query.select(cb.construct(TransactionSummary.class,
+                        root.get("id"),
+                        root.get("type"),
+                        root.get("amount"),
+                        root.get("status"),
+                        root.get("createdAt")))
+                .where(specification.toPredicate(root, query, cb))
+                // Same order as idx_transaction_user_created_id, so no sort step is needed
+                .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,13 +1,55 @@
 package com.stage8.wallet.repository;
 
 import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TransactionRepository extends JpaRepository<TransactionEntity , Long> {
+public interface TransactionRepository extends JpaRepository<TransactionEntity , Long>,
+        JpaSpecificationExecutor<TransactionEntity>, TransactionHistoryRepository {
 
     Optional<TransactionEntity> findByReference(String reference);
-    List<TransactionEntity> findByUser_Id(Long userId);
+
+    /**
+     * Loads and locks many transactions by reference in one IN query.
+     * Rows are locked in ascending id order, so concurrent batches cannot deadlock on each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TransactionEntity t WHERE t.reference IN :references ORDER BY t.id ASC")
+    List<TransactionEntity> findAllByReferenceInForUpdate(@Param("references") Collection<String> references);
+
+    /**
+     * Net amount of the wallet's settled postings - what its balance should have moved by
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t " +
+            "WHERE t.walletId = :walletId AND t.status = com.stage8.wallet.model.enums.TransactionStatus.SUCCESS")
+    long sumPostedAmountByWalletId(@Param("walletId") Long walletId);
+
+    /**
+     * Entire history of a user, newest first, for exports.
+     * Rows are pulled from the cursor in fetch-size chunks and are never attached to the
+     * persistence context, so memory stays flat however many rows the user has.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.stage8.wallet.model.projection.TransactionSummary(t.id, t.type, t.amount, t.status, t.createdAt) " +
+            "FROM TransactionEntity t WHERE t.user.id = :userId " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    Stream<TransactionSummary> streamHistory(@Param("userId") Long userId);
 }
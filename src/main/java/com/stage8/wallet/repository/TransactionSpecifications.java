@@ -0,0 +1,69 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Composable predicates for transaction history queries
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<TransactionEntity> ownedBy(long userId) {
+        // Compares the foreign key column - the user table is never joined
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<TransactionEntity> hasType(TransactionType type) {
+        return (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<TransactionEntity> hasStatus(TransactionStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Inclusive lower bound on createdAt
+     */
+    public static Specification<TransactionEntity> createdAtOrAfter(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("createdAt"), from);
+    }
+
+    /**
+     * Exclusive upper bound on createdAt
+     */
+    public static Specification<TransactionEntity> createdBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.<LocalDateTime>get("createdAt"), to);
+    }
+
+    /**
+     * Amounts are compared by magnitude, matching what the history API returns
+     * (outgoing transfers are stored negative)
+     */
+    public static Specification<TransactionEntity> amountAtLeast(long minAmount) {
+        return (root, query, cb) -> cb.ge(cb.abs(root.<Long>get("amount")), minAmount);
+    }
+
+    public static Specification<TransactionEntity> amountAtMost(long maxAmount) {
+        return (root, query, cb) -> cb.le(cb.abs(root.<Long>get("amount")), maxAmount);
+    }
+
+    /**
+     * Rows strictly after the (createdAt, id) keyset position in newest-first order.
+     * The standalone createdAt <= bound gives the database an index range to seek to;
+     * the OR only discards the rows sharing the cursor's timestamp.
+     */
+    public static Specification<TransactionEntity> olderThan(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.<LocalDateTime>get("createdAt"), createdAt),
+                cb.or(
+                        cb.lessThan(root.<LocalDateTime>get("createdAt"), createdAt),
+                        cb.lessThan(root.<Long>get("id"), id)));
+    }
+}
@@ -2,6 +2,8 @@ package com.stage8.wallet.repository;
 
 import com.stage8.wallet.model.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -9,4 +11,7 @@ public interface UserRepository extends JpaRepository<UserEntity , Long> {
 
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findByGoogleId(String googleId);
+
+    @Query("SELECT u.email FROM UserEntity u WHERE u.id = :id")
+    Optional<String> findEmailById(@Param("id") Long id);
 }
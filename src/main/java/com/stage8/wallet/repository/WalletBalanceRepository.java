@@ -0,0 +1,17 @@
+package com.stage8.wallet.repository;
+
+import java.util.SortedMap;
+
+/**
+ * Balance updates that touch many wallets at once
+ */
+public interface WalletBalanceRepository {
+
+    /**
+     * Credits every wallet in one JDBC batch, in ascending wallet id order
+     *
+     * @param amountsByWalletId amount in kobo to add, keyed by wallet id
+     * @return number of wallets that were not found
+     */
+    int creditAll(SortedMap<Long, Long> amountsByWalletId);
+}
@@ -0,0 +1,36 @@
+package com.stage8.wallet.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+@RequiredArgsConstructor
+class WalletBalanceRepositoryImpl implements WalletBalanceRepository {
+
+    // Same statement as WalletRepository.credit, sent as one batch instead of one round trip per wallet
+    private static final String CREDIT_SQL = "UPDATE wallet_entity SET balance = balance + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int creditAll(SortedMap<Long, Long> amountsByWalletId) {
+        if (amountsByWalletId.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>(amountsByWalletId.size());
+        amountsByWalletId.forEach((walletId, amount) -> rows.add(new Object[]{amount, walletId}));
+
+        int missing = 0;
+        for (int updated : jdbcTemplate.batchUpdate(CREDIT_SQL, rows)) {
+            // Drivers may report SUCCESS_NO_INFO for batched rows; only an explicit 0 means no such wallet
+            if (updated == 0 || updated == Statement.EXECUTE_FAILED) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,25 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.WalletNumberBlockEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface WalletNumberBlockRepository extends JpaRepository<WalletNumberBlockEntity, String> {
+
+    /**
+     * Claims the current block by advancing the counter in a single statement.
+     * The row stays locked until the surrounding transaction commits, so no two nodes claim the same block.
+     *
+     * @return number of rows updated (0 when the counter row does not exist yet)
+     */
+    @Modifying
+    @Query("UPDATE WalletNumberBlockEntity b SET b.nextBlock = b.nextBlock + 1 WHERE b.name = :name")
+    int advance(@Param("name") String name);
+
+    @Query("SELECT b.nextBlock FROM WalletNumberBlockEntity b WHERE b.name = :name")
+    Optional<Long> findNextBlock(@Param("name") String name);
+}
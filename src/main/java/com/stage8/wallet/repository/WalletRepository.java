@@ -1,12 +1,70 @@
 package com.stage8.wallet.repository;
 
 import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.model.projection.WalletNumberRef;
+import com.stage8.wallet.model.projection.WalletRef;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface WalletRepository extends JpaRepository<WalletEntity, Long> {
+public interface WalletRepository extends JpaRepository<WalletEntity, Long>, WalletBalanceRepository {
 
     Optional<WalletEntity> findByUser_Id(Long userId);
     Optional<WalletEntity> findByWalletNumber(String walletNumber);
+
+    @Query("SELECT w.id FROM WalletEntity w WHERE w.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT w.balance FROM WalletEntity w WHERE w.user.id = :userId")
+    Optional<Long> findBalanceByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT w.id AS id, w.user.id AS userId FROM WalletEntity w WHERE w.walletNumber = :walletNumber")
+    Optional<WalletRef> findRefByWalletNumber(@Param("walletNumber") String walletNumber);
+
+    /**
+     * Resolves many wallet numbers in one IN query; unknown numbers are simply absent from the result
+     */
+    @Query("SELECT w.id AS id, w.user.id AS userId, w.walletNumber AS walletNumber FROM WalletEntity w WHERE w.walletNumber IN :walletNumbers")
+    List<WalletNumberRef> findRefsByWalletNumberIn(@Param("walletNumbers") Collection<String> walletNumbers);
+
+    /**
+     * Resolves the wallets of many users in one IN query; users without a wallet are absent from the result
+     */
+    @Query("SELECT w.id AS id, w.user.id AS userId FROM WalletEntity w WHERE w.user.id IN :userIds")
+    List<WalletRef> findRefsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Loads and locks the given wallets with SELECT ... FOR UPDATE.
+     * Rows are returned and locked in ascending id order, so every caller acquires
+     * locks in the same order and two transfers between the same wallets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WalletEntity w WHERE w.id IN :ids ORDER BY w.id ASC")
+    List<WalletEntity> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deducts the amount only if the wallet holds enough funds.
+     * The balance check and the write happen in one statement, so concurrent debits cannot overdraw.
+     *
+     * @return number of rows updated (0 when the balance is insufficient or the wallet does not exist)
+     */
+    @Modifying
+    @Query("UPDATE WalletEntity w SET w.balance = w.balance - :amount, w.version = w.version + 1 WHERE w.id = :walletId AND w.balance >= :amount")
+    int debit(@Param("walletId") Long walletId, @Param("amount") Long amount);
+
+    /**
+     * Adds the amount to the wallet balance in a single statement
+     *
+     * @return number of rows updated (0 when the wallet does not exist)
+     */
+    @Modifying
+    @Query("UPDATE WalletEntity w SET w.balance = w.balance + :amount, w.version = w.version + 1 WHERE w.id = :walletId")
+    int credit(@Param("walletId") Long walletId, @Param("amount") Long amount);
 }
@@ -0,0 +1,104 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.WebhookInboxEntity;
+import com.stage8.wallet.model.enums.WebhookInboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEntity, Long> {
+
+    Optional<WebhookInboxEntity> findByEventAndReference(String event, String reference);
+
+    long countByStatus(WebhookInboxStatus status);
+
+    /**
+     * Receipt time of the oldest event still waiting for a worker
+     */
+    @Query("SELECT MIN(w.receivedAt) FROM WebhookInboxEntity w " +
+            "WHERE w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.RECEIVED")
+    Optional<LocalDateTime> findOldestReceivedAt();
+
+    /**
+     * Locks the oldest events in the given status that are due by now with FOR UPDATE SKIP LOCKED
+     * (lock timeout -2), so concurrent workers - on this node or others - each claim a different
+     * batch without waiting
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<WebhookInboxEntity> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(WebhookInboxStatus status,
+                                                                                    LocalDateTime now,
+                                                                                    Limit limit);
+
+    /**
+     * Records the outcome of a claimed event
+     *
+     * @return number of rows updated (0 when the event is no longer being processed)
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = :status, w.failureReason = :failureReason, w.processedAt = :processedAt " +
+            "WHERE w.id = :id AND w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.PROCESSING")
+    int complete(@Param("id") Long id,
+                 @Param("status") WebhookInboxStatus status,
+                 @Param("failureReason") String failureReason,
+                 @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Marks many claimed events PROCESSED in one statement
+     *
+     * @return number of rows updated (fewer than ids when some are no longer being processed)
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.PROCESSED, " +
+            "w.processedAt = :processedAt " +
+            "WHERE w.id IN :ids AND w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.PROCESSING")
+    int completeAll(@Param("ids") Collection<Long> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Puts a claimed event back in the inbox after a failed attempt, not to be claimed before nextAttemptAt
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.RECEIVED, " +
+            "w.failureReason = :failureReason, w.nextAttemptAt = :nextAttemptAt " +
+            "WHERE w.id = :id AND w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.PROCESSING")
+    int retry(@Param("id") Long id,
+              @Param("failureReason") String failureReason,
+              @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    /**
+     * Returns events whose worker died mid-batch to the inbox. Safe because an event and its
+     * PROCESSED status commit together - a row still PROCESSING never changed a balance.
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.RECEIVED " +
+            "WHERE w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.PROCESSING AND w.claimedAt < :claimedBefore")
+    int requeueStale(@Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Gives failed events a fresh set of attempts
+     *
+     * @return number of events returned to the inbox
+     */
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.RECEIVED, " +
+            "w.attempts = 0, w.failureReason = NULL, w.processedAt = NULL, w.nextAttemptAt = :now " +
+            "WHERE w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.FAILED")
+    int replayFailed(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WebhookInboxEntity w SET w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.RECEIVED, " +
+            "w.attempts = 0, w.failureReason = NULL, w.processedAt = NULL, w.nextAttemptAt = :now " +
+            "WHERE w.id = :id AND w.status = com.stage8.wallet.model.enums.WebhookInboxStatus.FAILED")
+    int replayFailed(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,219 @@
+package com.stage8.wallet.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stage8.wallet.repository.ApiKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-process cache of API key principals keyed by key hash
+ *
+ * Entries expire after wallet.api-key.cache.ttl, which bounds how long another node's revocation
+ * can go unnoticed here. Revocations on this node evict the entry as soon as they commit.
+ * Hit, miss and eviction counts are published as cache.* metrics with cache=apiKeyPrincipals.
+ *
+ * Unknown keys never reach the database twice: a Bloom filter over every stored key hash rejects
+ * keys that were definitely never issued, and the few that slip through as false positives are
+ * remembered in a negative cache. Both rejections are counted in wallet.api-key.lookups.skipped.
+ * Keys created on this node are added to the Bloom filter on commit. Keys created on other nodes
+ * are picked up every wallet.api-key.bloom.sync-interval by reading the hashes created since the
+ * previous sync, so a new key is rejected on other nodes for at most that long. Each sync reaches
+ * back an extra wallet.api-key.bloom.sync-overlap to cover keys committed late or stamped by a
+ * node with a skewed clock. The filter is rebuilt from every stored hash at startup and every
+ * wallet.api-key.bloom.refresh-interval to keep it sized to the key count.
+ */
+@Slf4j
+@Component
+public class ApiKeyCache {
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final Cache<String, ApiKeyPrincipal> principals;
+    private final Cache<String, Boolean> unknownKeys;
+    private final long expectedKeys;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+    private final Counter bloomRejections;
+    private final Counter negativeCacheRejections;
+
+    // Null until the first rebuild completes - every lookup goes to the cache/database until then
+    private volatile KeyHashBloomFilter bloomFilter;
+    // Start of the read the current filter was last brought up to date with
+    private volatile Instant syncedFrom;
+
+    // Guards swapping the filter against concurrent registrations; held only briefly, never during a read
+    private final Object registrationLock = new Object();
+    private boolean rebuilding;
+    private final List<String> registeredDuringRebuild = new ArrayList<>();
+
+    public ApiKeyCache(ApiKeyRepository apiKeyRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${wallet.api-key.cache.ttl:60s}") Duration ttl,
+                       @Value("${wallet.api-key.cache.max-size:10000}") long maxSize,
+                       @Value("${wallet.api-key.negative-cache.ttl:10m}") Duration negativeTtl,
+                       @Value("${wallet.api-key.negative-cache.max-size:100000}") long negativeMaxSize,
+                       @Value("${wallet.api-key.bloom.expected-keys:100000}") long expectedKeys,
+                       @Value("${wallet.api-key.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                       @Value("${wallet.api-key.bloom.sync-overlap:1m}") Duration syncOverlap) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.unknownKeys = Caffeine.newBuilder()
+                .expireAfterWrite(negativeTtl)
+                .maximumSize(negativeMaxSize)
+                .build();
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = syncOverlap;
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "apiKeyPrincipals");
+        this.bloomRejections = Counter.builder("wallet.api-key.lookups.skipped")
+                .description("Unknown API keys rejected without a database lookup")
+                .tag("reason", "bloom_filter")
+                .register(meterRegistry);
+        this.negativeCacheRejections = Counter.builder("wallet.api-key.lookups.skipped")
+                .description("Unknown API keys rejected without a database lookup")
+                .tag("reason", "negative_cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the principal for the given key hash, loading it from the database on a miss
+     */
+    public Optional<ApiKeyPrincipal> find(String keyHash) {
+        KeyHashBloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(keyHash)) {
+            bloomRejections.increment();
+            return Optional.empty();
+        }
+        if (unknownKeys.getIfPresent(keyHash) != null) {
+            negativeCacheRejections.increment();
+            return Optional.empty();
+        }
+
+        ApiKeyPrincipal principal = principals.get(keyHash, hash -> apiKeyRepository.findByKeyHash(hash)
+                .map(ApiKeyPrincipal::from)
+                .orElse(null));
+        if (principal == null) {
+            unknownKeys.put(keyHash, Boolean.TRUE);
+        }
+        return Optional.ofNullable(principal);
+    }
+
+    /**
+     * Makes a newly stored key hash known to the Bloom filter once the current transaction commits
+     */
+    public void register(String keyHash) {
+        afterCommit(() -> add(List.of(keyHash)));
+    }
+
+    private void add(List<String> keyHashes) {
+        synchronized (registrationLock) {
+            KeyHashBloomFilter filter = bloomFilter;
+            if (filter != null) {
+                keyHashes.forEach(filter::put);
+            }
+            if (rebuilding) {
+                // The rebuild may have read the table before these keys committed - replay them into its filter
+                registeredDuringRebuild.addAll(keyHashes);
+            }
+        }
+        unknownKeys.invalidateAll(keyHashes);
+    }
+
+    /**
+     * Drops the cached principal once the current transaction commits, so a concurrent
+     * request cannot reload the pre-commit state right after the eviction
+     */
+    public void evict(String keyHash) {
+        afterCommit(() -> principals.invalidate(keyHash));
+        log.debug("API key cache entry evicted");
+    }
+
+    /**
+     * Rebuilds the Bloom filter from every stored key hash.
+     * Runs at startup and periodically, resizing the filter as the number of keys grows.
+     */
+    @Scheduled(fixedDelayString = "${wallet.api-key.bloom.refresh-interval:5m}")
+    public synchronized void rebuildBloomFilter() {
+        synchronized (registrationLock) {
+            rebuilding = true;
+            registeredDuringRebuild.clear();
+        }
+        try {
+            Instant readStartedAt = Instant.now();
+            List<String> keyHashes = apiKeyRepository.findAllKeyHashes();
+            // Leave headroom for keys created before the next rebuild
+            KeyHashBloomFilter fresh = new KeyHashBloomFilter(
+                    Math.max(expectedKeys, keyHashes.size() * 2L), falsePositiveRate);
+            keyHashes.forEach(fresh::put);
+
+            // Replay and swap under the lock, so a registration lands either in the replay or in the new filter
+            synchronized (registrationLock) {
+                registeredDuringRebuild.forEach(fresh::put);
+                bloomFilter = fresh;
+            }
+            syncedFrom = readStartedAt;
+            // Keys that now exist must not stay in the negative cache
+            unknownKeys.invalidateAll();
+            log.info("API key Bloom filter rebuilt - Keys: {}", keyHashes.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild API key Bloom filter, keeping the previous one", e);
+        } finally {
+            synchronized (registrationLock) {
+                rebuilding = false;
+                registeredDuringRebuild.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds keys created since the previous sync, on any node, to the Bloom filter.
+     * An indexed range read on created_at, cheap enough to run every few seconds.
+     */
+    @Scheduled(fixedDelayString = "${wallet.api-key.bloom.sync-interval:5s}")
+    public void syncBloomFilter() {
+        Instant since = syncedFrom;
+        if (since == null) {
+            // Nothing to sync until the first rebuild has completed
+            return;
+        }
+        try {
+            Instant readStartedAt = Instant.now();
+            List<String> keyHashes = apiKeyRepository.findKeyHashesCreatedSince(since.minus(syncOverlap));
+            add(keyHashes);
+            syncedFrom = readStartedAt;
+            log.debug("API key Bloom filter synced - Keys: {}", keyHashes.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to sync API key Bloom filter, retrying next interval", e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
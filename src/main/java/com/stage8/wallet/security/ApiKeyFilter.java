@@ -1,7 +1,5 @@
 package com.stage8.wallet.security;
 
-import com.stage8.wallet.model.entity.ApiKeyEntity;
-import com.stage8.wallet.repository.ApiKeyRepository;
 import com.stage8.wallet.service.ApiKeyService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,8 +8,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -19,16 +15,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Instant;
-import java.util.Collection;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ApiKeyFilter extends OncePerRequestFilter {
 
-    private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyCache apiKeyCache;
     private final ApiKeyService apiKeyService;
 
     @Override
@@ -49,10 +43,10 @@ public class ApiKeyFilter extends OncePerRequestFilter {
             // Hash the provided API key using the service method
             String keyHash = apiKeyService.hashApiKey(apiKey);
 
-            // Look up API key in database
-            Optional<ApiKeyEntity> apiKeyEntityOpt = apiKeyRepository.findByKeyHash(keyHash);
+            // Look up API key - served from the in-process cache, database only on a miss
+            Optional<ApiKeyPrincipal> principalOpt = apiKeyCache.find(keyHash);
 
-            if (apiKeyEntityOpt.isEmpty()) {
+            if (principalOpt.isEmpty()) {
                 // API key not found - continue without authentication
                 // Spring Security will reject if authentication is required
                 log.debug("API key not found in database");
@@ -60,12 +54,19 @@ public class ApiKeyFilter extends OncePerRequestFilter {
                 return;
             }
 
-            ApiKeyEntity apiKeyEntity = apiKeyEntityOpt.get();
+            ApiKeyPrincipal apiKeyPrincipal = principalOpt.get();
 
             // Validate API key (not revoked and not expired)
-            String validationError = validateApiKey(apiKeyEntity);
+            String validationError = validateApiKey(apiKeyPrincipal);
             if (validationError != null) {
-                log.warn("API key validation failed: {}", validationError);
+                // No principal when the key has no owner
+                WalletPrincipal owner = apiKeyPrincipal.principal();
+                log.atWarn()
+                        .addKeyValue("keyId", apiKeyPrincipal.keyId())
+                        .addKeyValue("userId", owner != null ? owner.getUserId() : null)
+                        .addKeyValue("path", request.getRequestURI())
+                        .addKeyValue("reason", validationError)
+                        .log("API key rejected");
                 // Continue without authentication - Spring Security will handle rejection
                 filterChain.doFilter(request, response);
                 return;
@@ -73,25 +74,17 @@ public class ApiKeyFilter extends OncePerRequestFilter {
 
             // Set authentication in security context
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
-                String userId = apiKeyEntity.getOwner() != null 
-                        ? apiKeyEntity.getOwner().getId().toString() 
-                        : "api-key-user";
-
-                // Convert permissions to authorities
-                Collection<GrantedAuthority> authorities = apiKeyEntity.getPermissions() != null
-                        ? apiKeyEntity.getPermissions().stream()
-                                .map(permission -> new SimpleGrantedAuthority("ROLE_" + permission.name()))
-                                .collect(Collectors.toList())
-                        : null;
+                // Principal was built when the key was cached - nothing is allocated per request
+                WalletPrincipal principal = apiKeyPrincipal.principal();
 
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userId,
-                        apiKeyEntity, // Store API key entity for permission checking
-                        authorities
+                        principal,
+                        null,
+                        null // Permissions live in the principal's bitmask
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.debug("API key authenticated successfully for user: {}", userId);
+                log.debug("API key authenticated successfully for user: {}", principal.getUserId());
             }
 
         } catch (Exception e) {
@@ -106,14 +99,19 @@ public class ApiKeyFilter extends OncePerRequestFilter {
      * Validates if an API key is valid (not revoked and not expired)
      * @return Error message if invalid, null if valid
      */
-    private String validateApiKey(ApiKeyEntity apiKeyEntity) {
+    private String validateApiKey(ApiKeyPrincipal apiKeyPrincipal) {
+        // Keys must belong to a user
+        if (apiKeyPrincipal.principal() == null) {
+            return "API key has no owner";
+        }
+
         // Check if revoked
-        if (apiKeyEntity.isRevoked()) {
+        if (apiKeyPrincipal.revoked()) {
             return "API key has been revoked";
         }
 
-        // Check if expired
-        if (apiKeyEntity.getExpiresAt() != null && apiKeyEntity.getExpiresAt().isBefore(Instant.now())) {
+        // Check if expired - checked per request, cached entries may outlive the key
+        if (apiKeyPrincipal.isExpired(Instant.now())) {
             return "API key has expired";
         }
 
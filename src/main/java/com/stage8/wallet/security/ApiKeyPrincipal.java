@@ -0,0 +1,25 @@
+package com.stage8.wallet.security;
+
+import com.stage8.wallet.model.entity.ApiKeyEntity;
+
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of an API key, safe to cache and share between requests
+ *
+ * The WalletPrincipal is built once per cache load and reused for every request made with the key;
+ * it is null when the key has no owner.
+ */
+public record ApiKeyPrincipal(Long keyId, WalletPrincipal principal, Instant expiresAt, boolean revoked) {
+
+    public static ApiKeyPrincipal from(ApiKeyEntity apiKey) {
+        WalletPrincipal principal = apiKey.getOwner() != null
+                ? WalletPrincipal.forApiKey(apiKey.getOwner().getId(), apiKey.getPermissions())
+                : null;
+        return new ApiKeyPrincipal(apiKey.getId(), principal, apiKey.getExpiresAt(), apiKey.isRevoked());
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+}
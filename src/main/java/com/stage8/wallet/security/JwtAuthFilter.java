@@ -5,6 +5,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -12,7 +13,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -33,13 +36,17 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         try {
-            final String jwt = authHeader.substring(7);
-            final String subject = jwtService.extractSubject(jwt);
-
-            if (subject != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtService.isTokenValid(jwt)) {
+            // Already authenticated (e.g. by API key) - no need to verify the token at all
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                final String jwt = authHeader.substring(7);
+
+                // Signature and expiry are checked in one parse
+                Optional<JwtService.VerifiedToken> verified = jwtService.verify(jwt);
+                if (verified.isPresent() && verified.get().subject() != null) {
+                    // Subject is the user id; JWT users hold every permission
+                    WalletPrincipal principal = WalletPrincipal.forUser(Long.parseLong(verified.get().subject()));
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            subject,
+                            principal,
                             null,
                             null
                     );
@@ -48,7 +55,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 }
             }
         } catch (Exception e) {
-            System.out.println("Error setting details " + e);
+            log.warn("Failed to authenticate bearer token", e);
         }
 
         filterChain.doFilter(request, response);
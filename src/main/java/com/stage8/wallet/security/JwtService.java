@@ -1,28 +1,98 @@
 package com.stage8.wallet.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    // Derived once - the key and the parser are immutable and safe to share between threads
+    private final Key signingKey;
+    private final JwtParser jwtParser;
+    private final Long expiration;
 
-    @Value("${jwt.expiration:86400000}") // Default 24 hours
-    private Long expiration;
+    // Token digest -> verified result; null when caching is disabled
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    /**
+     * Creates a service without the verified-token cache
+     */
+    public JwtService(String secretKey, Long expiration) {
+        this(secretKey, expiration, null);
+    }
+
+    /**
+     * When jwt.verified-cache.enabled is true, successfully verified tokens are remembered (by SHA-256
+     * digest, never the raw token) until their own expiry, so a client reusing one token skips the
+     * signature check on later requests. Off by default - operators opt in. Published as cache.*
+     * metrics with cache=verifiedJwts.
+     */
+    @Autowired
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration:86400000}") Long expiration, // Default 24 hours
+                      @Value("${jwt.verified-cache.enabled:false}") boolean cacheEnabled,
+                      @Value("${jwt.verified-cache.max-size:10000}") long cacheMaxSize,
+                      MeterRegistry meterRegistry) {
+        this(secretKey, expiration, cacheEnabled ? buildCache(cacheMaxSize, meterRegistry) : null);
+    }
+
+    private JwtService(String secretKey, Long expiration, Cache<String, VerifiedToken> verifiedTokens) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.expiration = expiration;
+        this.verifiedTokens = verifiedTokens;
+    }
+
+    private static Cache<String, VerifiedToken> buildCache(long maxSize, MeterRegistry meterRegistry) {
+        Cache<String, VerifiedToken> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // Each entry lives exactly as long as the token it vouches for
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remainingMillis = value.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedJwts");
+        return cache;
     }
 
     public String generateToken(String subject, Map<String, Object> claims) {
@@ -31,7 +101,7 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -39,6 +109,41 @@ public class JwtService {
         return generateToken(subject, Map.of());
     }
 
+    /**
+     * Verifies the signature and expiry with a single parse, or returns the cached result
+     * of an earlier verification of the same token
+     *
+     * @return the verified subject and expiry, or empty if the token is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (verifiedTokens == null || token == null) {
+            return parseAndVerify(token);
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // Only successful verifications are cached, so garbage tokens cannot fill the cache
+        Optional<VerifiedToken> verified = parseAndVerify(token);
+        verified.ifPresent(result -> verifiedTokens.put(digest, result));
+        return verified;
+    }
+
+    private Optional<VerifiedToken> parseAndVerify(String token) {
+        try {
+            // The parser already rejects expired tokens; tokens without an expiry are never valid
+            Claims claims = extractAllClaims(token);
+            if (claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new VerifiedToken(claims.getSubject(), claims.getExpiration()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String extractSubject(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -49,11 +154,7 @@ public class JwtService {
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     public boolean isTokenValid(String token) {
@@ -67,4 +168,19 @@ public class JwtService {
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Result of a successful verification
+     */
+    public record VerifiedToken(String subject, Date expiration) {
+    }
 }
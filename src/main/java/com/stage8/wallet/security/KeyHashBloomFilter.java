@@ -0,0 +1,68 @@
+package com.stage8.wallet.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over API key hashes
+ *
+ * Key hashes are already SHA-256 output (64 hex characters), so the bit positions are taken
+ * straight from the digest with double hashing instead of hashing the string again.
+ * Safe for concurrent put and mightContain.
+ */
+final class KeyHashBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    KeyHashBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long n = Math.max(1, expectedInsertions);
+        // Optimal size and hash count for the requested false positive rate
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(String keyHash) {
+        long h1 = Long.parseUnsignedLong(keyHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(keyHash, 16, 32, 16) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return false if the key hash was definitely never added
+     */
+    boolean mightContain(String keyHash) {
+        if (keyHash.length() < 32) {
+            return false;
+        }
+        long h1;
+        long h2;
+        try {
+            h1 = Long.parseUnsignedLong(keyHash, 0, 16, 16);
+            h2 = Long.parseUnsignedLong(keyHash, 16, 32, 16) | 1;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.stage8.wallet.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Restricts operator endpoints to the users listed in wallet.operator.user-ids
+ *
+ * Any other caller - including wallet owners with a valid JWT or API key - is refused with 403.
+ * With no operators configured, nobody is let through.
+ */
+@Component
+public class OperatorAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final Set<Long> operatorUserIds;
+
+    public OperatorAuthorizationManager(@Value("${wallet.operator.user-ids:}") List<String> operatorUserIds) {
+        this.operatorUserIds = operatorUserIds.stream()
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication current = authentication.get();
+        boolean operator = current != null
+                && current.isAuthenticated()
+                && current.getPrincipal() instanceof WalletPrincipal principal
+                && operatorUserIds.contains(principal.getUserId());
+        return new AuthorizationDecision(operator);
+    }
+}
@@ -1,5 +1,6 @@
 package com.stage8.wallet.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -17,12 +18,17 @@ public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
     private final ApiKeyFilter apiKeyFilter;
     private final SecurityErrorHandler securityErrorHandler;
+    private final OperatorAuthorizationManager operatorAuthorizationManager;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches finish responses (e.g. streamed exports) whose request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Replays webhook events - operators only, and must not fall under the public /actuator/** rule below
+                        .requestMatchers("/actuator/webhookinbox/**").access(operatorAuthorizationManager)
                         .requestMatchers(
                                 "/",
                                 "/health",
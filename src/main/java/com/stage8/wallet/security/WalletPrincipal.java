@@ -0,0 +1,85 @@
+package com.stage8.wallet.security;
+
+import com.stage8.wallet.model.enums.Permission;
+
+import java.security.Principal;
+import java.util.Collection;
+
+/**
+ * Authenticated caller stored in the SecurityContext by both JwtAuthFilter and ApiKeyFilter
+ *
+ * Permissions are a bitmask over Permission ordinals, so a permission check is a single bit test.
+ * getName() returns the user id, which keeps Authentication.getName() working for controllers.
+ */
+public final class WalletPrincipal implements Principal {
+
+    private static final int ALL_PERMISSIONS = (1 << Permission.values().length) - 1;
+
+    private final long userId;
+    private final int permissions;
+    private final String name;
+
+    private WalletPrincipal(long userId, int permissions) {
+        this.userId = userId;
+        this.permissions = permissions;
+        this.name = Long.toString(userId);
+    }
+
+    /**
+     * JWT-authenticated users act on their own wallet with every permission
+     */
+    public static WalletPrincipal forUser(long userId) {
+        return new WalletPrincipal(userId, ALL_PERMISSIONS);
+    }
+
+    /**
+     * API key callers are limited to the permissions granted to the key
+     */
+    public static WalletPrincipal forApiKey(long ownerId, Collection<Permission> permissions) {
+        int mask = 0;
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                mask |= bit(permission);
+            }
+        }
+        return new WalletPrincipal(ownerId, mask);
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return (permissions & bit(permission)) != 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    private static int bit(Permission permission) {
+        return 1 << permission.ordinal();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WalletPrincipal other)) {
+            return false;
+        }
+        return userId == other.userId && permissions == other.permissions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(userId) * 31 + permissions;
+    }
+
+    @Override
+    public String toString() {
+        return "WalletPrincipal{userId=" + userId + ", permissions=" + Integer.toBinaryString(permissions) + "}";
+    }
+}
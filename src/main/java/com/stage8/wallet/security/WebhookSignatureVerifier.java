@@ -0,0 +1,72 @@
+package com.stage8.wallet.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Verifies the x-paystack-signature header: hex HMAC-SHA512 of the raw request body
+ *
+ * Each thread keeps its own initialized Mac (Mac is stateful and not thread-safe), so a webhook
+ * costs one HMAC over the body bytes and nothing else - no provider lookup, no key setup, no hex
+ * encoding of the digest. The header is decoded to bytes instead and compared in constant time.
+ */
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA512";
+    private static final int SIGNATURE_LENGTH = 64;
+
+    private final ThreadLocal<Mac> macs;
+
+    public WebhookSignatureVerifier(@Value("${paystack.webhook-secret}") String webhookSecret) {
+        SecretKeySpec key = new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        // Fail at startup rather than on the first webhook if the algorithm or key is unusable
+        newMac(key);
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA512 not available", e);
+        }
+    }
+
+    /**
+     * @param payload Raw request body, exactly as received
+     * @param signature Hex signature from the x-paystack-signature header
+     */
+    public boolean verify(byte[] payload, String signature) {
+        return payload != null && verify(payload, 0, payload.length, signature);
+    }
+
+    /**
+     * Verifies the first length bytes of payload from offset - for bodies held in a reused buffer
+     */
+    public boolean verify(byte[] payload, int offset, int length, String signature) {
+        if (payload == null || signature == null || signature.length() != SIGNATURE_LENGTH * 2) {
+            return false;
+        }
+        byte[] provided;
+        try {
+            provided = HexFormat.of().parseHex(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        Mac mac = macs.get();
+        mac.update(payload, offset, length);
+        // doFinal resets the Mac, ready for the next webhook on this thread
+        byte[] expected = mac.doFinal();
+        return MessageDigest.isEqual(expected, provided);
+    }
+}
@@ -4,6 +4,7 @@ import com.stage8.wallet.model.entity.ApiKeyEntity;
 import com.stage8.wallet.model.entity.UserEntity;
 import com.stage8.wallet.model.enums.Permission;
 import com.stage8.wallet.repository.ApiKeyRepository;
+import com.stage8.wallet.security.ApiKeyCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +25,7 @@ public class ApiKeyService {
 
     private static final int MAX_ACTIVE_KEYS = 5;
     private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyCache apiKeyCache;
 
     /**
      * Creates a new API key for a user
@@ -68,6 +70,7 @@ public class ApiKeyService {
                 .build();
 
         apiKeyEntity = apiKeyRepository.save(apiKeyEntity);
+        apiKeyCache.register(keyHash);
 
         return new CreateApiKeyResult(plainApiKey, apiKeyEntity);
     }
@@ -213,10 +216,12 @@ public class ApiKeyService {
                 .build();
 
         newApiKeyEntity = apiKeyRepository.save(newApiKeyEntity);
+        apiKeyCache.register(keyHash);
 
         // Revoke the old expired key
         oldApiKeyEntity.setRevoked(true);
         apiKeyRepository.save(oldApiKeyEntity);
+        apiKeyCache.evict(oldKeyHash);
 
         return new CreateApiKeyResult(plainApiKey, newApiKeyEntity);
     }
@@ -254,6 +259,7 @@ public class ApiKeyService {
         
         apiKey.setRevoked(true);
         apiKeyRepository.save(apiKey);
+        apiKeyCache.evict(apiKey.getKeyHash());
     }
 
     /**
@@ -0,0 +1,215 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.exception.TransferQueueFullException;
+import com.stage8.wallet.model.entity.QueuedTransferEntity;
+import com.stage8.wallet.model.enums.QueuedTransferStatus;
+import com.stage8.wallet.repository.QueuedTransferRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts transfers for later execution and drains them on a worker pool
+ *
+ * Submitting only inserts a row into the queue table, so the request thread never waits on
+ * wallet locks. Workers claim batches with FOR UPDATE SKIP LOCKED and run each transfer through
+ * {@link TransferService} in the same transaction that marks it SUCCESS, so a transfer is never
+ * applied without its status saying so. Lock conflicts put the transfer back on the queue until
+ * wallet.transfer.async.max-attempts is reached; business failures (insufficient balance, unknown
+ * recipient) fail it straight away.
+ */
+@Slf4j
+@Service
+public class AsyncTransferService {
+
+    private final QueuedTransferRepository queuedTransferRepository;
+    private final TransferService transferService;
+    private final ReferenceGenerator referenceGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final long queueCapacity;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+
+    public AsyncTransferService(QueuedTransferRepository queuedTransferRepository,
+                                TransferService transferService,
+                                ReferenceGenerator referenceGenerator,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${wallet.transfer.lock-timeout:5s}") Duration lockTimeout,
+                                @Value("${wallet.transfer.async.enabled:true}") boolean enabled,
+                                @Value("${wallet.transfer.async.workers:4}") int workerCount,
+                                @Value("${wallet.transfer.async.batch-size:100}") int batchSize,
+                                @Value("${wallet.transfer.async.queue-capacity:10000}") long queueCapacity,
+                                @Value("${wallet.transfer.async.max-attempts:5}") int maxAttempts,
+                                @Value("${wallet.transfer.async.claim-timeout:5m}") Duration claimTimeout) {
+        this.queuedTransferRepository = queuedTransferRepository;
+        this.transferService = transferService;
+        this.referenceGenerator = referenceGenerator;
+        this.enabled = enabled;
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.claimTimeout = claimTimeout;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, lockTimeout.toSeconds()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a transfer and returns its reference without touching either wallet
+     *
+     * @throws IllegalArgumentException if the amount is not positive
+     * @throws TransferQueueFullException if the queue already holds wallet.transfer.async.queue-capacity transfers
+     */
+    public String submit(long senderUserId, String recipientWalletNumber, Long amountInKobo) {
+        if (amountInKobo == null || amountInKobo <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero");
+        }
+        // Bounded queue - shed load at the door rather than let the backlog grow without limit
+        if (queuedTransferRepository.countByStatus(QueuedTransferStatus.QUEUED) >= queueCapacity) {
+            log.warn("Async transfer rejected - Queue full - Sender ID: {}, Capacity: {}", senderUserId, queueCapacity);
+            throw new TransferQueueFullException();
+        }
+
+        String reference = referenceGenerator.next();
+        queuedTransferRepository.save(QueuedTransferEntity.builder()
+                .reference(reference)
+                .senderUserId(senderUserId)
+                .recipientWalletNumber(recipientWalletNumber)
+                .amount(amountInKobo)
+                .status(QueuedTransferStatus.QUEUED)
+                .build());
+        log.info("Async transfer queued - Reference: {}, Sender ID: {}, Recipient Wallet: {}, Amount (kobo): {}",
+                reference, senderUserId, recipientWalletNumber, amountInKobo);
+        return reference;
+    }
+
+    public Optional<QueuedTransferEntity> findByReference(String reference) {
+        return queuedTransferRepository.findByReference(reference);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.transfer.async.poll-interval:500ms}")
+    public void scheduledDrain() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Runs every worker until the queue is empty
+     *
+     * @return number of transfers processed
+     */
+    public int drain() {
+        int recovered = transactionTemplate.execute(status ->
+                queuedTransferRepository.requeueStale(LocalDateTime.now().minus(claimTimeout)));
+        if (recovered > 0) {
+            log.warn("Requeued {} async transfers abandoned by a previous worker", recovered);
+        }
+
+        List<Future<Integer>> running = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            running.add(workers.submit(this::drainBatches));
+        }
+        int processed = 0;
+        for (Future<Integer> worker : running) {
+            try {
+                processed += worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Async transfer worker failed", e.getCause());
+            }
+        }
+        return processed;
+    }
+
+    private int drainBatches() {
+        int processed = 0;
+        List<QueuedTransferEntity> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            batch.forEach(this::execute);
+            processed += batch.size();
+        }
+        return processed;
+    }
+
+    /**
+     * Marks the next batch PROCESSING and commits, so the row locks are held only for the claim
+     */
+    private List<QueuedTransferEntity> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            List<QueuedTransferEntity> batch =
+                    queuedTransferRepository.findByStatusOrderByIdAsc(QueuedTransferStatus.QUEUED, Limit.of(batchSize));
+            LocalDateTime now = LocalDateTime.now();
+            for (QueuedTransferEntity transfer : batch) {
+                transfer.setStatus(QueuedTransferStatus.PROCESSING);
+                transfer.setClaimedAt(now);
+                transfer.setAttempts(transfer.getAttempts() + 1);
+            }
+            return batch;
+        });
+    }
+
+    private void execute(QueuedTransferEntity transfer) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transferService.transfer(transfer.getSenderUserId(), transfer.getRecipientWalletNumber(),
+                        transfer.getAmount(), transfer.getReference());
+                if (queuedTransferRepository.complete(transfer.getId(), QueuedTransferStatus.SUCCESS, null, LocalDateTime.now()) == 0) {
+                    // Someone else already settled this row - roll back rather than move the money twice
+                    throw new IllegalStateException("Transfer is no longer being processed");
+                }
+            });
+        } catch (ConcurrencyFailureException e) {
+            if (transfer.getAttempts() < maxAttempts) {
+                log.warn("Async transfer hit a conflict, requeued - Reference: {}, Attempt: {}",
+                        transfer.getReference(), transfer.getAttempts());
+                transactionTemplate.execute(status -> queuedTransferRepository.requeue(transfer.getId()));
+            } else {
+                fail(transfer, "Transfer failed after repeated conflicts, please retry");
+            }
+        } catch (RuntimeException e) {
+            fail(transfer, e.getMessage() != null ? e.getMessage() : "Transfer failed");
+        }
+    }
+
+    private void fail(QueuedTransferEntity transfer, String reason) {
+        log.error("Async transfer failed - Reference: {}, Reason: {}", transfer.getReference(), reason);
+        transactionTemplate.execute(status ->
+                queuedTransferRepository.complete(transfer.getId(), QueuedTransferStatus.FAILED, reason, LocalDateTime.now()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Transfers still PROCESSING when the pool dies are requeued after claim-timeout
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,308 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.JournalEntryEntity;
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.WalletNumberRef;
+import com.stage8.wallet.repository.JournalEntryRepository;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pays one funding wallet out to many recipients in a single database transaction
+ *
+ * All recipient wallet numbers are resolved with one IN query, the sender is debited once for
+ * the total, recipients are credited in one JDBC batch and the postings are inserted in JDBC
+ * batches. The whole payout is one journal entry: a single debit posting for the sender and
+ * one credit posting per paid item. Hot wallets are handled as in single transfers: a hot sender's
+ * pending credits are folded before its balance is read, and credits to hot recipients go to the
+ * pending credit log.
+ */
+@Slf4j
+@Service
+public class BulkTransferService {
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final UserRepository userRepository;
+    private final ReferenceGenerator referenceGenerator;
+    private final HotWalletService hotWalletService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+
+    public BulkTransferService(WalletRepository walletRepository,
+                               TransactionRepository transactionRepository,
+                               JournalEntryRepository journalEntryRepository,
+                               UserRepository userRepository,
+                               ReferenceGenerator referenceGenerator,
+                               HotWalletService hotWalletService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${wallet.transfer.lock-timeout:5s}") Duration lockTimeout,
+                               @Value("${wallet.bulk-transfer.max-items:5000}") int maxItems) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.userRepository = userRepository;
+        this.referenceGenerator = referenceGenerator;
+        this.hotWalletService = hotWalletService;
+        this.maxItems = maxItems;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, lockTimeout.toSeconds()));
+    }
+
+    /**
+     * Processes a bulk transfer from the user's wallet
+     *
+     * In ALL_OR_NOTHING mode a single unpayable item rejects the whole batch and nothing is moved.
+     * In BEST_EFFORT mode unpayable items are reported as failed and the rest are paid; items are
+     * funded in request order, so once the balance runs out the remaining items fail.
+     *
+     * @param senderUserId Id of the user funding the payout
+     * @param items Recipients and amounts in kobo, in request order
+     * @throws IllegalArgumentException if the request itself is invalid, or the balance changed
+     *         between reading it and debiting it
+     * @throws RuntimeException if the sender has no wallet
+     */
+    public Result transfer(long senderUserId, List<Item> items, Mode mode) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A bulk transfer may contain at most " + maxItems + " items");
+        }
+        for (Item item : items) {
+            if (item.walletNumber() == null || item.walletNumber().isBlank()) {
+                throw new IllegalArgumentException("Wallet number is required");
+            }
+            if (item.amount() == null || item.amount() <= 0) {
+                throw new IllegalArgumentException("Transfer amount must be greater than zero");
+            }
+        }
+
+        log.info("Bulk transfer initiated - Sender ID: {}, Items: {}, Mode: {}", senderUserId, items.size(), mode);
+        Result result = transactionTemplate.execute(status -> process(senderUserId, items, mode));
+        log.info("Bulk transfer finished - Sender ID: {}, Reference: {}, Paid: {}, Failed: {}, Total (kobo): {}",
+                senderUserId, result.reference(), result.succeeded(), result.failed(), result.totalAmount());
+        return result;
+    }
+
+    private Result process(long senderUserId, List<Item> items, Mode mode) {
+        Long senderWalletId = walletRepository.findIdByUserId(senderUserId)
+                .orElseThrow(() -> {
+                    log.error("Bulk transfer failed - Sender wallet not found for user ID: {}", senderUserId);
+                    return new RuntimeException("Sender wallet not found");
+                });
+        // A hot sender's balance excludes its pending credits until they are folded in; the fold keeps
+        // the sender row locked, so the balance read below holds until the debit
+        hotWalletService.foldIfHot(senderWalletId);
+        long balance = walletRepository.findBalanceByUserId(senderUserId).orElse(0L);
+
+        Set<String> walletNumbers = items.stream().map(Item::walletNumber).collect(Collectors.toSet());
+        Map<String, WalletNumberRef> recipients = walletRepository.findRefsByWalletNumberIn(walletNumbers).stream()
+                .collect(Collectors.toMap(WalletNumberRef::getWalletNumber, Function.identity()));
+
+        // Decide every item up front, funding them in request order from the balance just read
+        List<ItemResult> results = new ArrayList<>(items.size());
+        long total = 0;
+        for (int index = 0; index < items.size(); index++) {
+            Item item = items.get(index);
+            String error = validate(item, recipients.get(item.walletNumber()), senderWalletId);
+            if (error == null && item.amount() > balance - total) {
+                error = "Insufficient balance";
+            }
+            if (error == null) {
+                total += item.amount();
+                results.add(new ItemResult(index, item.walletNumber(), item.amount(), ItemStatus.SUCCESS, null));
+            } else {
+                results.add(new ItemResult(index, item.walletNumber(), item.amount(), ItemStatus.FAILED, error));
+            }
+        }
+
+        boolean anyFailed = results.stream().anyMatch(r -> r.status() == ItemStatus.FAILED);
+        if (mode == Mode.ALL_OR_NOTHING && anyFailed) {
+            log.warn("Bulk transfer rejected - Sender ID: {}, Failed items: {}", senderUserId,
+                    results.stream().filter(r -> r.status() == ItemStatus.FAILED).count());
+            return new Result(null, mode, results.stream().map(ItemResult::skippedIfPaid).toList());
+        }
+        if (total == 0) {
+            return new Result(null, mode, results);
+        }
+
+        String reference = referenceGenerator.next();
+        SortedMap<Long, Long> credits = new TreeMap<>();
+        for (ItemResult paid : paidItems(results)) {
+            credits.merge(recipients.get(paid.walletNumber()).getId(), paid.amount(), Long::sum);
+        }
+        moveFunds(senderUserId, senderWalletId, reference, total, credits);
+        post(senderUserId, senderWalletId, reference, total, paidItems(results), recipients);
+
+        return new Result(reference, mode, results);
+    }
+
+    private static String validate(Item item, WalletNumberRef recipient, Long senderWalletId) {
+        if (recipient == null) {
+            return "Recipient wallet not found";
+        }
+        if (recipient.getId().equals(senderWalletId)) {
+            return "Cannot transfer to own wallet";
+        }
+        if (recipient.getUserId() == null) {
+            return "Recipient wallet has no owner";
+        }
+        return null;
+    }
+
+    /**
+     * Debits the sender once and credits every recipient in one batch. Rows are written in
+     * ascending wallet id order - credits below the sender, the debit, then credits above -
+     * the same order single transfers use, so a payout and a transfer cannot deadlock.
+     * Hot recipients are not written at all; their credits are appended to the pending credit log.
+     */
+    private void moveFunds(long senderUserId, Long senderWalletId, String reference, long total,
+                           SortedMap<Long, Long> credits) {
+        int hotRecipients = 0;
+        for (Iterator<Map.Entry<Long, Long>> it = credits.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Long> credit = it.next();
+            if (hotWalletService.isHot(credit.getKey())) {
+                hotWalletService.appendCredit(credit.getKey(), credit.getValue(), reference);
+                it.remove();
+                hotRecipients++;
+            }
+        }
+
+        int missing = walletRepository.creditAll(credits.headMap(senderWalletId));
+
+        // CRITICAL: Only reduce balance if there is enough money
+        // The balance was read without a lock; if it dropped since, the whole payout rolls back
+        if (walletRepository.debit(senderWalletId, total) == 0) {
+            log.error("Bulk transfer failed - Insufficient balance at debit - Sender ID: {}, Wallet ID: {}, Requested: {}",
+                    senderUserId, senderWalletId, total);
+            throw new IllegalArgumentException("Insufficient balance");
+        }
+
+        missing += walletRepository.creditAll(credits.tailMap(senderWalletId));
+        if (missing > 0) {
+            log.error("Bulk transfer failed - {} recipient wallets disappeared during transfer", missing);
+            throw new RuntimeException("Recipient wallet not found");
+        }
+        log.info("Bulk transfer funds moved - Sender Wallet ID: {}, Total: {}, Recipient Wallets: {}, Hot: {}",
+                senderWalletId, total, credits.size() + hotRecipients, hotRecipients);
+    }
+
+    /**
+     * Appends the payout to the ledger as one journal entry. saveAll hands the postings to
+     * Hibernate together, so they are inserted in JDBC batches of hibernate.jdbc.batch_size.
+     */
+    private void post(long senderUserId, Long senderWalletId, String reference, long total,
+                      List<ItemResult> paid, Map<String, WalletNumberRef> recipients) {
+        LocalDateTime now = LocalDateTime.now();
+        JournalEntryEntity journalEntry = journalEntryRepository.save(JournalEntryEntity.builder()
+                .reference(reference)
+                .type(TransactionType.TRANSFER)
+                .createdAt(now)
+                .build());
+
+        List<TransactionEntity> postings = new ArrayList<>(paid.size() + 1);
+        postings.add(posting(journalEntry, senderUserId, senderWalletId, -total, now));
+        for (ItemResult item : paid) {
+            WalletNumberRef recipient = recipients.get(item.walletNumber());
+            postings.add(posting(journalEntry, recipient.getUserId(), recipient.getId(), item.amount(), now));
+        }
+        transactionRepository.saveAll(postings);
+
+        log.info("Bulk transfer posted - Reference: {}, Journal Entry ID: {}, Postings: {}",
+                reference, journalEntry.getId(), postings.size());
+    }
+
+    private TransactionEntity posting(JournalEntryEntity journalEntry, Long userId, Long walletId,
+                                      long amountInKobo, LocalDateTime createdAt) {
+        return TransactionEntity.builder()
+                .journalEntry(journalEntry)
+                // Only needed as a foreign key, so a proxy avoids loading the user row
+                .user(userRepository.getReferenceById(userId))
+                .walletId(walletId)
+                .type(TransactionType.TRANSFER)
+                .status(TransactionStatus.SUCCESS)
+                .amount(amountInKobo) // Negative for the sender, positive for each recipient
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static List<ItemResult> paidItems(List<ItemResult> results) {
+        return results.stream().filter(r -> r.status() == ItemStatus.SUCCESS).toList();
+    }
+
+    /**
+     * One payout line of a bulk transfer
+     */
+    public record Item(String walletNumber, Long amount) {
+    }
+
+    /**
+     * Outcome of one payout line; index is its position in the request
+     */
+    public record ItemResult(int index, String walletNumber, Long amount, ItemStatus status, String error) {
+
+        private ItemResult skippedIfPaid() {
+            return status == ItemStatus.SUCCESS
+                    ? new ItemResult(index, walletNumber, amount, ItemStatus.SKIPPED, null)
+                    : this;
+        }
+    }
+
+    /**
+     * Outcome of a bulk transfer. The reference is null when nothing was paid.
+     */
+    public record Result(String reference, Mode mode, List<ItemResult> items) {
+
+        public boolean applied() {
+            return reference != null;
+        }
+
+        public long succeeded() {
+            return items.stream().filter(item -> item.status() == ItemStatus.SUCCESS).count();
+        }
+
+        public long failed() {
+            return items.stream().filter(item -> item.status() == ItemStatus.FAILED).count();
+        }
+
+        public long totalAmount() {
+            return items.stream().filter(item -> item.status() == ItemStatus.SUCCESS).mapToLong(ItemResult::amount).sum();
+        }
+    }
+
+    public enum ItemStatus {
+        SUCCESS,
+        FAILED,
+        /** Payable, but not paid because the all-or-nothing batch was rejected */
+        SKIPPED
+    }
+
+    public enum Mode {
+        /** Any unpayable item rejects the whole batch */
+        ALL_OR_NOTHING,
+        /** Pays every payable item and reports the rest as failed */
+        BEST_EFFORT
+    }
+}
@@ -5,11 +5,11 @@ import com.stage8.wallet.model.entity.UserEntity;
 import com.stage8.wallet.model.enums.TransactionStatus;
 import com.stage8.wallet.model.enums.TransactionType;
 import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
 
 @Service
@@ -17,7 +17,9 @@ import java.time.LocalDateTime;
 public class DepositService {
 
     private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
     private final PaystackService paystackService;
+    private final ReferenceGenerator referenceGenerator;
 
     /**
      * Creates a pending deposit transaction and initializes Paystack payment
@@ -25,13 +27,18 @@ public class DepositService {
      * CRITICAL: Every change must create a transaction record
      * This creates a PENDING transaction that will be updated by the webhook
      * 
-     * @param user The user making the deposit
+     * @param userId Id of the user making the deposit - only their email is read
      * @param amountInKobo Amount in kobo (integer)
      */
     @Transactional
-    public DepositResult initializeDeposit(UserEntity user, Long amountInKobo) {
+    public DepositResult initializeDeposit(long userId, Long amountInKobo) {
+        String email = userRepository.findEmailById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The transaction only needs the user as a foreign key
+        UserEntity user = userRepository.getReferenceById(userId);
+
         // Generate unique transaction reference (ensures uniqueness for idempotency)
-        String reference = generateTransactionReference();
+        String reference = referenceGenerator.next();
 
         // CRITICAL: Every change must create a transaction record
         // Create pending transaction record (will be updated by webhook)
@@ -49,32 +56,13 @@ public class DepositService {
         // Initialize Paystack transaction
         PaystackService.PaystackInitResponse paystackResponse = paystackService.initializeTransaction(
                 amountInKobo,
-                user.getEmail(),
+                email,
                 reference
         );
 
         return new DepositResult(transaction, paystackResponse.getReference(), paystackResponse.getAuthorizationUrl());
     }
 
-    /**
-     * Generates a unique transaction reference
-     */
-    private String generateTransactionReference() {
-        SecureRandom random = new SecureRandom();
-        String reference;
-        do {
-            // Generate 16-character alphanumeric reference
-            StringBuilder sb = new StringBuilder();
-            String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-            for (int i = 0; i < 16; i++) {
-                sb.append(chars.charAt(random.nextInt(chars.length())));
-            }
-            reference = sb.toString();
-        } while (transactionRepository.findByReference(reference).isPresent());
-
-        return reference;
-    }
-
     /**
      * Result class for deposit initialization
      */
@@ -15,7 +15,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.security.SecureRandom;
 import java.util.Collections;
 
 @Service
@@ -23,6 +22,7 @@ public class GoogleOAuthService {
 
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
+    private final WalletNumberAllocator walletNumberAllocator;
     private final GoogleIdTokenVerifier verifier;
     private final String clientId;
     private final String clientSecret;
@@ -30,11 +30,13 @@ public class GoogleOAuthService {
 
     public GoogleOAuthService(UserRepository userRepository, 
                               WalletRepository walletRepository,
+                              WalletNumberAllocator walletNumberAllocator,
                               @Value("${google.oauth.client-id}") String clientId,
                               @Value("${google.oauth.client-secret}") String clientSecret,
                               @Value("${google.oauth.redirect-uri}") String redirectUri) {
         this.userRepository = userRepository;
         this.walletRepository = walletRepository;
+        this.walletNumberAllocator = walletNumberAllocator;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
         this.redirectUri = redirectUri;
@@ -122,7 +124,8 @@ public class GoogleOAuthService {
      //Creates a wallet for a user
 
     private void createWalletForUser(UserEntity user) {
-        String walletNumber = generateWalletNumber();
+        // Numbers come from an in-memory block - no wallet table lookup needed
+        String walletNumber = walletNumberAllocator.allocate();
         WalletEntity wallet = WalletEntity.builder()
                 .user(user)
                 .walletNumber(walletNumber)
@@ -130,20 +133,6 @@ public class GoogleOAuthService {
         walletRepository.save(wallet);
     }
 
-    //Generates a unique wallet number
-
-    private String generateWalletNumber() {
-        SecureRandom random = new SecureRandom();
-        String walletNumber;
-        do {
-            // Generate 10-digit wallet number
-            walletNumber = String.format("%010d", random.nextInt(1000000000));
-        } while (walletRepository.findByWalletNumber(walletNumber).isPresent());
-
-        return walletNumber;
-    }
-
-
       //Inner class to hold Google user information
 
     public static class GoogleUserInfo {
@@ -0,0 +1,147 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.PendingCreditEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.model.projection.WalletNumberRef;
+import com.stage8.wallet.repository.PendingCreditRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Single-writer balance updates for hot merchant wallets
+ *
+ * Wallets listed in wallet.hot-wallet.wallet-numbers are not credited in place. A transfer to one
+ * appends a row to the pending credit log instead - a plain insert, so any number of transfers can
+ * credit the same wallet concurrently without queueing on its row lock. A single folder then adds
+ * the logged credits to the balance in micro-batches every wallet.hot-wallet.fold-interval.
+ *
+ * Debits stay strongly consistent: before a hot wallet is debited its pending credits are folded
+ * inside the debiting transaction, under the wallet row lock. Balance reads may lag incoming
+ * credits by up to one fold interval; the ledger postings are written immediately.
+ */
+@Slf4j
+@Service
+public class HotWalletService {
+
+    private final WalletRepository walletRepository;
+    private final PendingCreditRepository pendingCreditRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> hotWalletNumbers;
+    private final int foldBatchSize;
+
+    // Wallet numbers resolved to ids; re-resolved while some numbers are still unknown
+    private volatile Set<Long> hotWalletIds = Set.of();
+
+    public HotWalletService(WalletRepository walletRepository,
+                            PendingCreditRepository pendingCreditRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${wallet.hot-wallet.wallet-numbers:}") List<String> hotWalletNumbers,
+                            @Value("${wallet.hot-wallet.fold-batch-size:5000}") int foldBatchSize) {
+        this.walletRepository = walletRepository;
+        this.pendingCreditRepository = pendingCreditRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotWalletNumbers = hotWalletNumbers.stream()
+                .map(String::trim)
+                .filter(number -> !number.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.foldBatchSize = Math.max(1, foldBatchSize);
+    }
+
+    public boolean isHot(Long walletId) {
+        return hotWalletIds.contains(walletId);
+    }
+
+    /**
+     * Folds the wallet's pending credits if it is a hot wallet, so its balance can be read or debited.
+     * A no-op for any other wallet; see {@link #foldPending(Long)}.
+     */
+    public void foldIfHot(Long walletId) {
+        if (isHot(walletId)) {
+            foldPending(walletId);
+        }
+    }
+
+    /**
+     * Logs a credit to a hot wallet. Joins the caller's transaction, so the credit
+     * commits or rolls back together with the transfer that made it.
+     */
+    public void appendCredit(Long walletId, long amountInKobo, String reference) {
+        pendingCreditRepository.save(PendingCreditEntity.builder()
+                .walletId(walletId)
+                .amount(amountInKobo)
+                .reference(reference)
+                .build());
+        log.debug("Hot wallet credit logged - Wallet ID: {}, Amount: {}, Reference: {}", walletId, amountInKobo, reference);
+    }
+
+    /**
+     * Adds every committed pending credit of the wallet to its balance. Must run inside a transaction;
+     * the wallet row stays locked until it commits, so folds of the same wallet never overlap.
+     *
+     * @return the locked wallet, managed by the current persistence context with its folded balance
+     */
+    public WalletEntity foldPending(Long walletId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Pending credits must be folded inside a transaction");
+        }
+        WalletEntity wallet = walletRepository.findAllByIdInForUpdate(List.of(walletId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Wallet not found"));
+
+        long folded = 0;
+        int rows = 0;
+        List<PendingCreditEntity> pending;
+        do {
+            pending = pendingCreditRepository.findByWalletIdOrderByIdAsc(walletId, Limit.of(foldBatchSize));
+            if (pending.isEmpty()) {
+                break;
+            }
+            // Delete exactly the rows summed: pooled ids are not commit-ordered, so an id range could
+            // sweep up a credit that committed after this read
+            folded += pending.stream().mapToLong(PendingCreditEntity::getAmount).sum();
+            rows += pending.size();
+            pendingCreditRepository.deleteAllByIdInBatch(pending.stream().map(PendingCreditEntity::getId).toList());
+        } while (pending.size() == foldBatchSize);
+
+        if (rows > 0) {
+            // Managed entity rather than a bulk UPDATE, so a transfer continuing in this
+            // transaction sees the folded balance
+            wallet.setBalance(wallet.getBalance() + folded);
+            log.debug("Hot wallet credits folded - Wallet ID: {}, Credits: {}, Amount: {}", walletId, rows, folded);
+        }
+        return wallet;
+    }
+
+    /**
+     * The single writer: folds the pending credits of every hot wallet, one transaction per wallet
+     */
+    @Scheduled(fixedDelayString = "${wallet.hot-wallet.fold-interval:100ms}")
+    public void foldAll() {
+        if (hotWalletNumbers.isEmpty()) {
+            return;
+        }
+        try {
+            if (hotWalletIds.size() < hotWalletNumbers.size()) {
+                hotWalletIds = walletRepository.findRefsByWalletNumberIn(hotWalletNumbers).stream()
+                        .map(WalletNumberRef::getId)
+                        .collect(Collectors.toUnmodifiableSet());
+            }
+            for (Long walletId : hotWalletIds) {
+                transactionTemplate.executeWithoutResult(status -> foldPending(walletId));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to fold hot wallet credits, retrying next interval", e);
+        }
+    }
+}
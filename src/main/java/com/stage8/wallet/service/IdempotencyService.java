@@ -0,0 +1,249 @@
+package com.stage8.wallet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stage8.wallet.model.entity.IdempotencyKeyEntity;
+import com.stage8.wallet.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes transfer and deposit requests safe to retry with an Idempotency-Key header
+ *
+ * The first request with a key claims it by inserting a row - the unique constraint decides
+ * between racing retries, so there is no read-then-write window. Its response is stored on the
+ * row and replayed to every retry until the key expires (wallet.idempotency.ttl). Recently
+ * completed keys are also held in memory, so a burst of retries is answered without a query.
+ *
+ * Only final outcomes are stored: success and 400 responses. Anything else (server errors,
+ * a full transfer queue) releases the key so the retry runs again.
+ *
+ * A claim is a lease: if its owner dies before storing a response, retries get 409 until
+ * wallet.idempotency.claim-timeout has passed and then the next retry takes the claim over and
+ * runs the request. The timeout must stay well above the slowest request.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> recentResponses;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${wallet.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${wallet.idempotency.claim-timeout:1m}") Duration claimTimeout,
+                              @Value("${wallet.idempotency.cache.ttl:10m}") Duration cacheTtl,
+                              @Value("${wallet.idempotency.cache.max-size:10000}") long cacheMaxSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        // The claim must commit before the work starts, or a racing retry could not see it
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.recentResponses = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl)
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    /**
+     * Runs the action once per user and key, replaying its stored response to retries
+     *
+     * @param operation Name of the endpoint, part of the request fingerprint
+     * @param request Request body, part of the request fingerprint
+     * @return the action's response, a replay of it, 409 while the first request is still
+     *         running (within claim-timeout), 422 if the key was used for a different request, 400 for a malformed key
+     */
+    public ResponseEntity<?> execute(long userId, String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+        String requestHash = fingerprint(operation, request);
+        String cacheKey = userId + ":" + key;
+
+        StoredResponse cached = recentResponses.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash, key);
+        }
+
+        Long claimId = claim(userId, key, requestHash);
+        if (claimId == null) {
+            // Lost the insert race, or this is a retry of a finished request
+            IdempotencyKeyEntity existing = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                    .orElse(null);
+            if (existing == null) {
+                // Released between our insert and this read - the client can simply retry
+                return conflict();
+            }
+            if (existing.getResponseStatus() != null) {
+                StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponseStatus(),
+                        existing.getResponseBody());
+                recentResponses.put(cacheKey, stored);
+                return replay(stored, requestHash, key);
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                return mismatch();
+            }
+            if (!reclaim(existing.getId())) {
+                return conflict();
+            }
+            log.warn("Took over abandoned claim for Idempotency-Key: {}", key);
+            claimId = existing.getId();
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(claimId);
+            throw e;
+        }
+
+        int status = response.getStatusCode().value();
+        if (!response.getStatusCode().is2xxSuccessful() && status != HttpStatus.BAD_REQUEST.value()) {
+            release(claimId);
+            return response;
+        }
+        StoredResponse stored = new StoredResponse(requestHash, status, toJson(response.getBody()));
+        // Cached first: if storing fails after the work committed, retries to this node still replay it
+        recentResponses.put(cacheKey, stored);
+        Long ownedClaimId = claimId;
+        transactionTemplate.execute(tx -> idempotencyKeyRepository.complete(ownedClaimId, stored.status(), stored.body()));
+        return response;
+    }
+
+    /**
+     * Inserts the key row
+     *
+     * @return id of the new row, or null when the key is already taken
+     */
+    private Long claim(long userId, String key, String requestHash) {
+        try {
+            return transactionTemplate.execute(tx -> idempotencyKeyRepository.saveAndFlush(IdempotencyKeyEntity.builder()
+                    .userId(userId)
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .expiresAt(LocalDateTime.now().plus(ttl))
+                    .build()).getId());
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Takes over a claim that has been running for longer than claim-timeout
+     *
+     * @return true when this request now owns the claim
+     */
+    private boolean reclaim(Long claimId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(tx ->
+                idempotencyKeyRepository.reclaim(claimId, now.minus(claimTimeout), now));
+        return updated != null && updated == 1;
+    }
+
+    private void release(Long claimId) {
+        transactionTemplate.executeWithoutResult(tx -> idempotencyKeyRepository.deleteById(claimId));
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash, String key) {
+        if (!stored.requestHash().equals(requestHash)) {
+            return mismatch();
+        }
+        log.info("Replaying stored response for Idempotency-Key: {}", key);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.body() == null) {
+            return builder.build();
+        }
+        try {
+            return builder.contentType(MediaType.APPLICATION_JSON).body(objectMapper.readTree(stored.body()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not valid JSON", e);
+        }
+    }
+
+    private static ResponseEntity<?> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "A request with this " + HEADER + " is still being processed"));
+    }
+
+    private static ResponseEntity<?> mismatch() {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(Map.of("error", HEADER + " was already used for a different request"));
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be fingerprinted", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored for idempotent replay", e);
+        }
+    }
+
+    /**
+     * Deletes keys past their TTL; a retry after that runs as a new request
+     */
+    @Scheduled(fixedDelayString = "${wallet.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        try {
+            Integer purged = transactionTemplate.execute(tx -> idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+            log.info("Expired idempotency keys purged - Count: {}", purged);
+        } catch (RuntimeException e) {
+            log.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+}
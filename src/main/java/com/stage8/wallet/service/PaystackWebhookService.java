@@ -3,61 +3,32 @@ package com.stage8.wallet.service;
 import com.stage8.wallet.model.entity.TransactionEntity;
 import com.stage8.wallet.model.entity.WalletEntity;
 import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.projection.WalletRef;
 import com.stage8.wallet.repository.TransactionRepository;
 import com.stage8.wallet.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaystackWebhookService {
 
-    @Value("${paystack.webhook-secret}")
-    private String webhookSecret;
-
     private final TransactionRepository transactionRepository;
     private final WalletRepository walletRepository;
-
-    /**
-     * Validates Paystack webhook signature using HMAC SHA512
-     */
-    public boolean validateSignature(String payload, String signature) {
-        if (signature == null || payload == null) {
-            return false;
-        }
-
-        try {
-            Mac mac = Mac.getInstance("HmacSHA512");
-            SecretKeySpec secretKeySpec = new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            mac.init(secretKeySpec);
-            byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            
-            // Convert to hex string
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            
-            // Paystack sends signature in hex format
-            return hexString.toString().equals(signature);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            return false;
-        }
-    }
+    private final HotWalletService hotWalletService;
 
     /**
      * Processes Paystack webhook event
@@ -127,6 +98,91 @@ public class PaystackWebhookService {
         }
     }
 
+    /**
+     * Settles a batch of webhook events in the caller's transaction
+     *
+     * Same outcome as calling processWebhookEvent for each event, in a fixed number of statements:
+     * one IN query locks every referenced transaction, one resolves the wallets to credit, and each
+     * wallet gets a single aggregated balance update - hot wallets get one pending credit per deposit
+     * instead. Transaction status changes are flushed as one JDBC batch. Events for a reference
+     * already settled - earlier or in this batch - are skipped.
+     *
+     * @return failure reason by reference for events that could not be applied; they changed nothing
+     */
+    @Transactional
+    public Map<String, String> settleBatch(List<Settlement> settlements) {
+        Set<String> references = settlements.stream()
+                .map(Settlement::reference)
+                .collect(Collectors.toSet());
+        Map<String, TransactionEntity> transactions = transactionRepository.findAllByReferenceInForUpdate(references).stream()
+                .collect(Collectors.toMap(TransactionEntity::getReference, Function.identity()));
+
+        Map<String, String> failures = new HashMap<>();
+        Map<String, Settlement> applicable = new LinkedHashMap<>();
+        for (Settlement settlement : settlements) {
+            String reference = settlement.reference();
+            TransactionEntity transaction = transactions.get(reference);
+            if (transaction == null) {
+                log.error("Webhook processing failed - Transaction not found: {}", reference);
+                failures.put(reference, "Transaction not found: " + reference);
+            } else if (transaction.getStatus() != TransactionStatus.PENDING || applicable.containsKey(reference)) {
+                log.warn("Webhook idempotency check - Reference {} already settled. Skipping duplicate webhook.", reference);
+            } else if (transaction.getUser() == null && settlement.succeeded()) {
+                log.error("Cannot credit wallet - Transaction has no user: {}", reference);
+                failures.put(reference, "Transaction has no user");
+            } else {
+                applicable.put(reference, settlement);
+            }
+        }
+
+        // One IN query for every wallet this batch credits
+        Set<Long> userIds = applicable.values().stream()
+                .filter(Settlement::succeeded)
+                .map(settlement -> transactions.get(settlement.reference()).getUser().getId())
+                .collect(Collectors.toSet());
+        Map<Long, Long> walletIdByUserId = userIds.isEmpty() ? Map.of() : walletRepository.findRefsByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(WalletRef::getUserId, WalletRef::getId));
+
+        SortedMap<Long, Long> creditsByWalletId = new TreeMap<>();
+        for (Settlement settlement : applicable.values()) {
+            TransactionEntity transaction = transactions.get(settlement.reference());
+            Long walletId = null;
+            if (settlement.succeeded()) {
+                walletId = walletIdByUserId.get(transaction.getUser().getId());
+                if (walletId == null) {
+                    log.error("Cannot credit wallet - Wallet not found for user ID: {}", transaction.getUser().getId());
+                    failures.put(settlement.reference(), "Wallet not found for user");
+                    continue;
+                }
+            }
+
+            // Managed entities - flushed together on commit
+            if (settlement.amountInKobo() != null && settlement.amountInKobo() > 0) {
+                transaction.setAmount(settlement.amountInKobo());
+            }
+            if (walletId != null) {
+                transaction.setStatus(TransactionStatus.SUCCESS);
+                // The settled deposit becomes the wallet's credit posting in the ledger
+                transaction.setWalletId(walletId);
+                if (hotWalletService.isHot(walletId)) {
+                    hotWalletService.appendCredit(walletId, transaction.getAmount(), transaction.getReference());
+                } else {
+                    creditsByWalletId.merge(walletId, transaction.getAmount(), Long::sum);
+                }
+            } else {
+                transaction.setStatus(TransactionStatus.FAILED);
+            }
+        }
+
+        // Ascending wallet id order, the same order transfers lock in
+        if (!creditsByWalletId.isEmpty() && walletRepository.creditAll(creditsByWalletId) > 0) {
+            throw new IllegalStateException("Wallet disappeared during settlement");
+        }
+        log.info("Webhook batch settled - Events: {}, Wallets credited: {}, Failed: {}",
+                settlements.size(), creditsByWalletId.size(), failures.size());
+        return failures;
+    }
+
     /**
      * Updates wallet balance for successful deposit transaction
      * CRITICAL: Only called when payment status is SUCCESS
@@ -146,7 +202,19 @@ public class PaystackWebhookService {
 
         // Record balance before credit for logging
         Long balanceBefore = wallet.getBalance();
+
+        // The settled deposit becomes the wallet's credit posting in the ledger
+        transaction.setWalletId(wallet.getId());
+        transactionRepository.save(transaction);
         
+        // A hot wallet's row is left alone - the credit is logged and the balance catches up on the next fold
+        if (hotWalletService.isHot(wallet.getId())) {
+            hotWalletService.appendCredit(wallet.getId(), transaction.getAmount(), transaction.getReference());
+            log.info("Hot wallet credit logged - Reference: {}, Wallet: {}, Amount: {}",
+                    transaction.getReference(), wallet.getWalletNumber(), transaction.getAmount());
+            return;
+        }
+
         // Add deposit amount to wallet balance (ONLY for successful payments)
         wallet.setBalance(wallet.getBalance() + transaction.getAmount());
         walletRepository.save(wallet);
@@ -154,5 +222,18 @@ public class PaystackWebhookService {
         log.info("Wallet balance credited - Reference: {}, Wallet: {}, Amount: {}, Balance Before: {}, Balance After: {}", 
                 transaction.getReference(), wallet.getWalletNumber(), transaction.getAmount(), balanceBefore, wallet.getBalance());
     }
+
+    /**
+     * One webhook event to settle
+     *
+     * @param status Payment status from Paystack
+     * @param amountInKobo Amount in kobo from Paystack, replaces the transaction amount when positive
+     */
+    public record Settlement(String reference, String status, Long amountInKobo) {
+
+        boolean succeeded() {
+            return "success".equalsIgnoreCase(status);
+        }
+    }
 }
 
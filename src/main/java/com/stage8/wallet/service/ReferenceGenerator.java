@@ -0,0 +1,103 @@
+package com.stage8.wallet.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+/**
+ * Generates 16-character transaction references that are unique by construction
+ *
+ * Layout (80 bits, Crockford base32, most significant first):
+ * 48 bits epoch milliseconds | 12 bits node id | 20 bits sequence
+ *
+ * References sort by creation time and never need a database round trip to check for
+ * collisions. Uniqueness across instances rests on each one running with a distinct
+ * wallet.reference.node-id, so startup fails when it is not set.
+ */
+@Slf4j
+@Component
+public class ReferenceGenerator {
+
+    public static final int LENGTH = 16;
+
+    // Crockford base32 - no I, L, O or U, so references stay unambiguous when read out loud
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final int NODE_BITS = 12;
+    private static final int SEQUENCE_BITS = 20;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final SecureRandom random = new SecureRandom();
+    private final long nodeId;
+
+    private long lastMillis = -1L;
+    private long sequence;
+
+    @Autowired
+    public ReferenceGenerator(@Value("${wallet.reference.node-id:}") Long nodeId) {
+        this(requireNodeId(nodeId));
+    }
+
+    public ReferenceGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("wallet.reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        log.info("Reference generator initialized - Node ID: {}", this.nodeId);
+    }
+
+    private static long requireNodeId(Long nodeId) {
+        // A guessed node id would make references from two instances collide sooner or later
+        if (nodeId == null) {
+            throw new IllegalStateException("wallet.reference.node-id (WALLET_REFERENCE_NODE_ID) must be set "
+                    + "to a value between 0 and " + MAX_NODE_ID + " that no other running instance uses");
+        }
+        return nodeId;
+    }
+
+    /**
+     * Returns the next reference for this node
+     */
+    public String next() {
+        long millis;
+        long seq;
+        synchronized (this) {
+            millis = Math.max(System.currentTimeMillis(), lastMillis);
+            if (millis > lastMillis) {
+                // Random start within the lower half leaves plenty of room before the sequence wraps
+                // and makes consecutive references harder to guess
+                sequence = random.nextInt(1 << (SEQUENCE_BITS - 1));
+                lastMillis = millis;
+            } else if (sequence < MAX_SEQUENCE) {
+                sequence++;
+            } else {
+                // Sequence exhausted within this millisecond - borrow the next one.
+                // Also covers the clock stepping backwards: we keep counting from lastMillis.
+                lastMillis++;
+                millis = lastMillis;
+                sequence = 0;
+            }
+            seq = sequence;
+        }
+        return encode(millis, seq);
+    }
+
+    private String encode(long millis, long seq) {
+        // 80-bit value split as 48-bit time (high) and node id + sequence (low 32 bits)
+        long high = millis & 0xFFFF_FFFF_FFFFL;
+        long low = (nodeId << SEQUENCE_BITS) | seq;
+
+        // Emit five bits per character, starting from the least significant end
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (low & 31)];
+            low = (low >>> 5) | ((high & 31) << 27);
+            high >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,145 @@
+package com.stage8.wallet.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.stage8.wallet.dto.TransactionHistoryResponse;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import com.stage8.wallet.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full transaction history as NDJSON or CSV
+ *
+ * Rows flow from the database cursor straight into a buffered writer one at a time, so memory
+ * use is the same for ten rows or ten million. The export runs in its own read-only transaction
+ * because it is written from the async thread serving the streaming response.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "created_at,type,amount,status\n";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        // Rows go to one shared writer: it must stay open between rows, and flushing it per row
+        // would turn every transaction into its own network write
+        this.rowWriter = objectMapper.writerFor(TransactionHistoryResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Streams every transaction of the user to the output, newest first.
+     * The output is flushed but not closed.
+     *
+     * @return number of transactions written
+     */
+    public long export(long userId, ExportFormat format, OutputStream out) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Stream<TransactionSummary> history = transactionRepository.streamHistory(userId)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+                long written = write(history.iterator(), format, writer);
+                writer.flush();
+                return written;
+            } catch (IOException e) {
+                // Usually the client went away mid-download
+                throw new UncheckedIOException("Failed to write transaction export", e);
+            }
+        });
+        log.info("Transaction export completed - User ID: {}, Format: {}, Rows: {}", userId, format, rows);
+        return rows;
+    }
+
+    private long write(Iterator<TransactionSummary> history, ExportFormat format, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long written = 0;
+        while (history.hasNext()) {
+            TransactionHistoryResponse row = TransactionHistoryResponse.from(history.next());
+            if (format == ExportFormat.CSV) {
+                writeCsvRow(row, writer);
+            } else {
+                rowWriter.writeValue(writer, row);
+                writer.write('\n');
+            }
+            written++;
+        }
+        return written;
+    }
+
+    private static void writeCsvRow(TransactionHistoryResponse row, Writer writer) throws IOException {
+        // Every column is a timestamp, number or enum name, so no quoting is ever needed
+        writer.write(row.getCreatedAt() != null ? row.getCreatedAt().toString() : "");
+        writer.write(',');
+        writer.write(row.getType() != null ? row.getType() : "");
+        writer.write(',');
+        writer.write(row.getAmount() != null ? row.getAmount().toString() : "");
+        writer.write(',');
+        writer.write(row.getStatus() != null ? row.getStatus() : "");
+        writer.write('\n');
+    }
+
+    /**
+     * Supported export formats
+     */
+    public enum ExportFormat {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+        private final MediaType mediaType;
+        private final String fileExtension;
+
+        ExportFormat(MediaType mediaType, String fileExtension) {
+            this.mediaType = mediaType;
+            this.fileExtension = fileExtension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything other than ndjson or csv
+         */
+        public static ExportFormat parse(String format) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new IllegalArgumentException("Unsupported export format. Use ndjson or csv.");
+            }
+        }
+    }
+}
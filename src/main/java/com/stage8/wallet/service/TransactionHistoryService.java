@@ -0,0 +1,168 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.TransactionSpecifications;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset-paginated transaction history, newest first
+ *
+ * Pages are addressed by the (createdAt, id) of the last row returned rather than an offset,
+ * so every page costs one index seek no matter how deep the client has scrolled, and rows
+ * inserted while paging never shift or duplicate entries on later pages.
+ *
+ * Filters are applied in the database as Specifications, so reconciliation tools fetch only the
+ * rows they need. The common selective filters (PENDING / FAILED) have partial indexes on
+ * PostgreSQL - see schema-postgresql.sql.
+ */
+@Service
+public class TransactionHistoryService {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final TransactionRepository transactionRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public TransactionHistoryService(TransactionRepository transactionRepository,
+                                     @Value("${wallet.transactions.default-page-size:50}") int defaultPageSize,
+                                     @Value("${wallet.transactions.max-page-size:200}") int maxPageSize) {
+        this.transactionRepository = transactionRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Returns one page of the user's history matching the filter
+     *
+     * @param userId Owner of the transactions
+     * @param filter Server-side filters; HistoryFilter.none() for the full history
+     * @param cursor Cursor from the previous page, or null for the newest transactions
+     * @param limit Requested page size, or null for the default; capped at wallet.transactions.max-page-size
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is not positive
+     */
+    public HistoryPage getHistory(long userId, HistoryFilter filter, String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+
+        Specification<TransactionEntity> specification = filter.toSpecification(userId);
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = Cursor.decode(cursor);
+            specification = specification.and(TransactionSpecifications.olderThan(position.createdAt(), position.id()));
+        }
+        // One extra row tells us whether another page exists without a count query
+        List<TransactionSummary> rows = transactionRepository.findHistory(specification, pageSize + 1);
+
+        if (rows.size() <= pageSize) {
+            return new HistoryPage(rows, null);
+        }
+        List<TransactionSummary> page = rows.subList(0, pageSize);
+        TransactionSummary last = page.get(pageSize - 1);
+        return new HistoryPage(page, new Cursor(last.createdAt(), last.id()).encode());
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    /**
+     * Optional history filters; null fields are not applied.
+     * from is inclusive, to is exclusive, and amounts are compared by magnitude.
+     */
+    public record HistoryFilter(TransactionType type,
+                                TransactionStatus status,
+                                LocalDateTime from,
+                                LocalDateTime to,
+                                Long minAmount,
+                                Long maxAmount) {
+
+        public HistoryFilter {
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new IllegalArgumentException("from must be before to");
+            }
+            if ((minAmount != null && minAmount < 0) || (maxAmount != null && maxAmount < 0)) {
+                throw new IllegalArgumentException("Amount filters must not be negative");
+            }
+            if (minAmount != null && maxAmount != null && minAmount > maxAmount) {
+                throw new IllegalArgumentException("min_amount must not exceed max_amount");
+            }
+        }
+
+        public static HistoryFilter none() {
+            return new HistoryFilter(null, null, null, null, null, null);
+        }
+
+        Specification<TransactionEntity> toSpecification(long userId) {
+            Specification<TransactionEntity> specification = TransactionSpecifications.ownedBy(userId);
+            if (type != null) {
+                specification = specification.and(TransactionSpecifications.hasType(type));
+            }
+            if (status != null) {
+                specification = specification.and(TransactionSpecifications.hasStatus(status));
+            }
+            if (from != null) {
+                specification = specification.and(TransactionSpecifications.createdAtOrAfter(from));
+            }
+            if (to != null) {
+                specification = specification.and(TransactionSpecifications.createdBefore(to));
+            }
+            if (minAmount != null) {
+                specification = specification.and(TransactionSpecifications.amountAtLeast(minAmount));
+            }
+            if (maxAmount != null) {
+                specification = specification.and(TransactionSpecifications.amountAtMost(maxAmount));
+            }
+            return specification;
+        }
+    }
+
+    /**
+     * One page of history plus the cursor for the next one (null on the last page)
+     */
+    public record HistoryPage(List<TransactionSummary> transactions, String nextCursor) {
+    }
+
+    /**
+     * Position after the last row of a page. Encoded as URL-safe base64 so clients treat it as opaque.
+     */
+    record Cursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return CURSOR_ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -1,169 +1,402 @@
 package com.stage8.wallet.service;
 
+import com.stage8.wallet.model.entity.JournalEntryEntity;
 import com.stage8.wallet.model.entity.TransactionEntity;
 import com.stage8.wallet.model.entity.UserEntity;
 import com.stage8.wallet.model.entity.WalletEntity;
 import com.stage8.wallet.model.enums.TransactionStatus;
 import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.WalletRef;
+import com.stage8.wallet.repository.JournalEntryRepository;
 import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
 import com.stage8.wallet.repository.WalletRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TransferService {
 
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
+    private final JournalEntryRepository journalEntryRepository;
+    private final UserRepository userRepository;
+    private final ReferenceGenerator referenceGenerator;
+    private final HotWalletService hotWalletService;
+    private final TransactionTemplate transactionTemplate;
+    private final LockingMode lockingMode;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long retryMaxBackoffMillis;
+    private final Counter retryCounter;
+    private final Counter retryExhaustedCounter;
+
+    public TransferService(WalletRepository walletRepository,
+                           TransactionRepository transactionRepository,
+                           JournalEntryRepository journalEntryRepository,
+                           UserRepository userRepository,
+                           ReferenceGenerator referenceGenerator,
+                           HotWalletService hotWalletService,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${wallet.transfer.locking-mode:ATOMIC}") LockingMode lockingMode,
+                           @Value("${wallet.transfer.lock-timeout:5s}") Duration lockTimeout,
+                           @Value("${wallet.transfer.max-attempts:3}") int maxAttempts,
+                           @Value("${wallet.transfer.retry-backoff:10ms}") Duration retryBackoff,
+                           @Value("${wallet.transfer.retry-max-backoff:200ms}") Duration retryMaxBackoff) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.journalEntryRepository = journalEntryRepository;
+        this.userRepository = userRepository;
+        this.referenceGenerator = referenceGenerator;
+        this.hotWalletService = hotWalletService;
+        this.lockingMode = lockingMode;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = Math.max(1, retryBackoff.toMillis());
+        this.retryMaxBackoffMillis = Math.max(this.retryBackoffMillis, retryMaxBackoff.toMillis());
+        this.retryCounter = Counter.builder("wallet.transfer.retries")
+                .description("Transfer attempts retried after a lock or version conflict")
+                .tag("mode", lockingMode.name())
+                .register(meterRegistry);
+        this.retryExhaustedCounter = Counter.builder("wallet.transfer.retries.exhausted")
+                .description("Transfers that failed because every attempt hit a conflict")
+                .tag("mode", lockingMode.name())
+                .register(meterRegistry);
+        // The transaction timeout is applied to every statement, which bounds how long
+        // a transfer may wait on a locked wallet row on any database
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, lockTimeout.toSeconds()));
+    }
 
     /**
      * Processes a wallet-to-wallet transfer
-     * Validates balance, performs atomic transaction, and logs all operations
-     * 
-     * @param sender The user initiating the transfer
+     * Runs in its own transaction and is retried when it loses a lock or serialization conflict
+     *
+     * @param senderUserId Id of the user initiating the transfer - the user row itself is never loaded
      * @param recipientWalletNumber The wallet number of the recipient
      * @param amountInKobo The amount to transfer in kobo (must be positive)
      * @throws IllegalArgumentException if validation fails (insufficient balance, invalid wallet, self-transfer)
      * @throws RuntimeException if database operation fails
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void transfer(UserEntity sender, String recipientWalletNumber, Long amountInKobo) {
-        log.info("Transfer initiated - Sender ID: {}, Recipient Wallet: {}, Amount (kobo): {}", 
-                sender.getId(), recipientWalletNumber, amountInKobo);
+    public void transfer(long senderUserId, String recipientWalletNumber, Long amountInKobo) {
+        transfer(senderUserId, recipientWalletNumber, amountInKobo, referenceGenerator.next());
+    }
+
+    /**
+     * Same as {@link #transfer(long, String, Long)}, posted under a reference the caller already
+     * handed out - used by queued transfers so the ledger entry matches the reference being polled.
+     * Joins the caller's transaction when there is one.
+     */
+    public void transfer(long senderUserId, String recipientWalletNumber, Long amountInKobo, String reference) {
+        log.debug("Transfer initiated - Sender ID: {}, Recipient Wallet: {}, Amount (kobo): {}, Mode: {}, Reference: {}",
+                senderUserId, recipientWalletNumber, amountInKobo, lockingMode, reference);
 
         // Validate amount is positive
         if (amountInKobo == null || amountInKobo <= 0) {
-            log.error("Transfer failed - Invalid amount: {} for sender ID: {}", amountInKobo, sender.getId());
+            log.error("Transfer failed - Invalid amount: {} for sender ID: {}", amountInKobo, senderUserId);
             throw new IllegalArgumentException("Transfer amount must be greater than zero");
         }
 
-        // Get sender's wallet
-        WalletEntity senderWallet = walletRepository.findByUser_Id(sender.getId())
-                .orElseThrow(() -> {
-                    log.error("Transfer failed - Sender wallet not found for user ID: {}", sender.getId());
-                    return new RuntimeException("Sender wallet not found");
-                });
+        executeWithRetry(() -> transactionTemplate.executeWithoutResult(status -> {
+            switch (lockingMode) {
+                case PESSIMISTIC -> transferWithRowLocks(senderUserId, recipientWalletNumber, amountInKobo, reference);
+                case OPTIMISTIC -> transferWithVersionCheck(senderUserId, recipientWalletNumber, amountInKobo, reference);
+                default -> transferWithConditionalUpdates(senderUserId, recipientWalletNumber, amountInKobo, reference);
+            }
+        }));
+
+        // The one INFO line per transfer; the steps above log at DEBUG
+        log.atInfo()
+                .addKeyValue("reference", reference)
+                .addKeyValue("senderUserId", senderUserId)
+                .addKeyValue("recipientWallet", recipientWalletNumber)
+                .addKeyValue("amount", amountInKobo)
+                .addKeyValue("mode", lockingMode)
+                .log("Transfer completed");
+    }
+
+    /**
+     * Balances are mutated with conditional UPDATE statements: the debit only succeeds if the
+     * sender still holds enough funds at write time, so concurrent transfers cannot overdraw a wallet
+     */
+    private void transferWithConditionalUpdates(long senderUserId, String recipientWalletNumber, Long amountInKobo,
+                                                String reference) {
+        TransferParties parties = resolveParties(senderUserId, recipientWalletNumber);
+        Long senderWalletId = parties.senderWalletId();
+        Long recipientWalletId = parties.recipient().getId();
+
+        // Touch the rows in ascending id order so that A->B and B->A transfers queue up on the
+        // same row instead of each holding one lock and waiting for the other.
+        // A hot recipient's row is not touched at all - its credit goes to the pending credit log.
+        if (hotWalletService.isHot(recipientWalletId)) {
+            debitSender(senderUserId, senderWalletId, amountInKobo);
+            hotWalletService.appendCredit(recipientWalletId, amountInKobo, reference);
+        } else if (senderWalletId < recipientWalletId) {
+            debitSender(senderUserId, senderWalletId, amountInKobo);
+            creditRecipient(recipientWalletId, recipientWalletNumber, amountInKobo);
+        } else {
+            creditRecipient(recipientWalletId, recipientWalletNumber, amountInKobo);
+            debitSender(senderUserId, senderWalletId, amountInKobo);
+        }
+
+        postTransfer(senderUserId, senderWalletId, parties.recipient().getUserId(), recipientWalletId, reference, amountInKobo);
+    }
+
+    /**
+     * Locks both wallet rows with SELECT ... FOR UPDATE, always in ascending id order,
+     * then performs the read-modify-write on the locked entities
+     */
+    private void transferWithRowLocks(long senderUserId, String recipientWalletNumber, Long amountInKobo,
+                                      String reference) {
+        TransferParties parties = resolveParties(senderUserId, recipientWalletNumber);
+        Long senderWalletId = parties.senderWalletId();
+        Long recipientWalletId = parties.recipient().getId();
+
+        boolean hotRecipient = hotWalletService.isHot(recipientWalletId);
+        List<WalletEntity> lockedWallets = walletRepository.findAllByIdInForUpdate(
+                hotRecipient ? List.of(senderWalletId) : List.of(senderWalletId, recipientWalletId));
+        WalletEntity senderWallet = findWallet(lockedWallets, senderWalletId);
+        WalletEntity recipientWallet = hotRecipient ? null : findWallet(lockedWallets, recipientWalletId);
+        // The sender row is already locked, so folding its pending credits takes no further lock
+        hotWalletService.foldIfHot(senderWalletId);
 
-        log.debug("Sender wallet retrieved - Wallet ID: {}, Wallet Number: {}, Current Balance: {}", 
-                senderWallet.getId(), senderWallet.getWalletNumber(), senderWallet.getBalance());
+        log.debug("Wallet rows locked - Sender Wallet ID: {}, Balance: {}, Recipient Wallet ID: {}, Hot: {}",
+                senderWallet.getId(), senderWallet.getBalance(), recipientWalletId, hotRecipient);
 
         // CRITICAL: Only reduce balance if there is enough money
-        // This prevents negative balances and ensures transfers only happen when sufficient funds exist
+        // Both rows are locked, so the balance cannot change between this check and the commit
         if (senderWallet.getBalance() < amountInKobo) {
-            log.error("Transfer failed - Insufficient balance - Sender ID: {}, Wallet: {}, Balance: {}, Requested: {}", 
-                    sender.getId(), senderWallet.getWalletNumber(), senderWallet.getBalance(), amountInKobo);
+            log.error("Transfer failed - Insufficient balance - Sender ID: {}, Wallet: {}, Balance: {}, Requested: {}",
+                    senderUserId, senderWallet.getWalletNumber(), senderWallet.getBalance(), amountInKobo);
             throw new IllegalArgumentException("Insufficient balance");
         }
 
-        // Get recipient's wallet
-        WalletEntity recipientWallet = walletRepository.findByWalletNumber(recipientWalletNumber)
+        // Managed entities - flushed on commit
+        senderWallet.setBalance(senderWallet.getBalance() - amountInKobo);
+        creditLoadedRecipient(recipientWallet, recipientWalletId, amountInKobo, reference);
+        log.debug("Balances updated under row locks - Sender Wallet: {}, Recipient Wallet: {}, Amount: {}",
+                senderWallet.getWalletNumber(), recipientWalletNumber, amountInKobo);
+
+        postTransfer(senderUserId, senderWalletId, parties.recipient().getUserId(), recipientWalletId, reference, amountInKobo);
+    }
+
+    /**
+     * Reads both wallets without locking and relies on their @Version column: if either
+     * wallet changed since it was read, the commit fails and the transfer is retried.
+     * Cheapest mode when the same wallet is rarely written concurrently.
+     */
+    private void transferWithVersionCheck(long senderUserId, String recipientWalletNumber, Long amountInKobo,
+                                          String reference) {
+        TransferParties parties = resolveParties(senderUserId, recipientWalletNumber);
+        Long senderWalletId = parties.senderWalletId();
+        Long recipientWalletId = parties.recipient().getId();
+
+        // A hot sender is locked while its pending credits are folded; the read below then
+        // returns that same managed entity
+        hotWalletService.foldIfHot(senderWalletId);
+        boolean hotRecipient = hotWalletService.isHot(recipientWalletId);
+        List<WalletEntity> wallets = walletRepository.findAllById(
+                hotRecipient ? List.of(senderWalletId) : List.of(senderWalletId, recipientWalletId));
+        WalletEntity senderWallet = findWallet(wallets, senderWalletId);
+        WalletEntity recipientWallet = hotRecipient ? null : findWallet(wallets, recipientWalletId);
+
+        // CRITICAL: Only reduce balance if there is enough money
+        // A concurrent change to this balance bumps the version and fails our commit
+        if (senderWallet.getBalance() < amountInKobo) {
+            log.error("Transfer failed - Insufficient balance - Sender ID: {}, Wallet: {}, Balance: {}, Requested: {}",
+                    senderUserId, senderWallet.getWalletNumber(), senderWallet.getBalance(), amountInKobo);
+            throw new IllegalArgumentException("Insufficient balance");
+        }
+
+        // Managed entities - flushed on commit with a version check
+        senderWallet.setBalance(senderWallet.getBalance() - amountInKobo);
+        creditLoadedRecipient(recipientWallet, recipientWalletId, amountInKobo, reference);
+        log.debug("Balances updated with version check - Sender Wallet: {} (v{}), Recipient Wallet: {}, Amount: {}",
+                senderWallet.getWalletNumber(), senderWallet.getVersion(), recipientWalletNumber, amountInKobo);
+
+        postTransfer(senderUserId, senderWalletId, parties.recipient().getUserId(), recipientWalletId, reference, amountInKobo);
+    }
+
+    /**
+     * Resolves wallet ids only - no entity hydration - and applies the ownership checks
+     */
+    private TransferParties resolveParties(long senderUserId, String recipientWalletNumber) {
+        Long senderWalletId = walletRepository.findIdByUserId(senderUserId)
+                .orElseThrow(() -> {
+                    log.error("Transfer failed - Sender wallet not found for user ID: {}", senderUserId);
+                    return new RuntimeException("Sender wallet not found");
+                });
+
+        WalletRef recipientWallet = walletRepository.findRefByWalletNumber(recipientWalletNumber)
                 .orElseThrow(() -> {
                     log.error("Transfer failed - Recipient wallet not found: {}", recipientWalletNumber);
                     return new IllegalArgumentException("Recipient wallet not found");
                 });
 
-        log.debug("Recipient wallet retrieved - Wallet ID: {}, Wallet Number: {}, Current Balance: {}", 
-                recipientWallet.getId(), recipientWallet.getWalletNumber(), recipientWallet.getBalance());
-
         // Prevent self-transfer
-        if (senderWallet.getId().equals(recipientWallet.getId())) {
-            log.error("Transfer failed - Self-transfer attempt - Wallet: {}", senderWallet.getWalletNumber());
+        if (senderWalletId.equals(recipientWallet.getId())) {
+            log.error("Transfer failed - Self-transfer attempt - Wallet ID: {}", senderWalletId);
             throw new IllegalArgumentException("Cannot transfer to own wallet");
         }
 
-        // Generate transaction reference
-        String reference = generateTransactionReference();
-        log.debug("Transaction reference generated: {}", reference);
-
-        // Get recipient user
-        UserEntity recipient = recipientWallet.getUser();
-        if (recipient == null) {
+        if (recipientWallet.getUserId() == null) {
             log.error("Transfer failed - Recipient wallet has no owner - Wallet: {}", recipientWalletNumber);
             throw new RuntimeException("Recipient wallet has no owner");
         }
 
-        // Record balances before transfer for logging
-        Long senderBalanceBefore = senderWallet.getBalance();
-        Long recipientBalanceBefore = recipientWallet.getBalance();
+        return new TransferParties(senderWalletId, recipientWallet);
+    }
+
+    private void debitSender(long senderUserId, Long senderWalletId, Long amountInKobo) {
+        // A hot wallet's balance excludes its pending credits until they are folded in
+        hotWalletService.foldIfHot(senderWalletId);
 
-        // Deduct from sender
-        senderWallet.setBalance(senderWallet.getBalance() - amountInKobo);
-        walletRepository.save(senderWallet);
-        log.info("Amount deducted from sender - Wallet: {}, Amount: {}, Balance Before: {}, Balance After: {}", 
-                senderWallet.getWalletNumber(), amountInKobo, senderBalanceBefore, senderWallet.getBalance());
-
-        // Add to recipient
-        recipientWallet.setBalance(recipientWallet.getBalance() + amountInKobo);
-        walletRepository.save(recipientWallet);
-        log.info("Amount credited to recipient - Wallet: {}, Amount: {}, Balance Before: {}, Balance After: {}", 
-                recipientWallet.getWalletNumber(), amountInKobo, recipientBalanceBefore, recipientWallet.getBalance());
-
-        // Create transaction for sender (OUTGOING)
-        TransactionEntity senderTransaction = TransactionEntity.builder()
-                .reference(reference + "_OUT")
-                .user(sender)
+        // CRITICAL: Only reduce balance if there is enough money
+        // The balance check is part of the UPDATE itself, so it holds even under concurrent transfers
+        if (walletRepository.debit(senderWalletId, amountInKobo) == 0) {
+            log.error("Transfer failed - Insufficient balance - Sender ID: {}, Wallet ID: {}, Requested: {}",
+                    senderUserId, senderWalletId, amountInKobo);
+            throw new IllegalArgumentException("Insufficient balance");
+        }
+        log.debug("Amount deducted from sender - Wallet ID: {}, Amount: {}", senderWalletId, amountInKobo);
+    }
+
+    private void creditRecipient(Long recipientWalletId, String recipientWalletNumber, Long amountInKobo) {
+        if (walletRepository.credit(recipientWalletId, amountInKobo) == 0) {
+            log.error("Transfer failed - Recipient wallet disappeared during transfer - Wallet: {}", recipientWalletNumber);
+            throw new RuntimeException("Recipient wallet not found");
+        }
+        log.debug("Amount credited to recipient - Wallet: {}, Amount: {}", recipientWalletNumber, amountInKobo);
+    }
+
+    /**
+     * Credits a recipient loaded in this transaction, or logs the credit when the recipient
+     * is a hot wallet and was deliberately not loaded
+     */
+    private void creditLoadedRecipient(WalletEntity recipientWallet, Long recipientWalletId, Long amountInKobo,
+                                       String reference) {
+        if (recipientWallet == null) {
+            hotWalletService.appendCredit(recipientWalletId, amountInKobo, reference);
+        } else {
+            recipientWallet.setBalance(recipientWallet.getBalance() + amountInKobo);
+        }
+    }
+
+    private WalletEntity findWallet(List<WalletEntity> wallets, Long walletId) {
+        return wallets.stream()
+                .filter(wallet -> wallet.getId().equals(walletId))
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.error("Transfer failed - Wallet disappeared during transfer - Wallet ID: {}", walletId);
+                    return new RuntimeException("Wallet not found");
+                });
+    }
+
+    /**
+     * Appends the transfer to the ledger: one journal entry and its two balancing postings.
+     * The postings are saved together so they can go out as a single JDBC batch.
+     */
+    private void postTransfer(long senderUserId, Long senderWalletId, Long recipientUserId, Long recipientWalletId,
+                              String reference, Long amountInKobo) {
+        LocalDateTime now = LocalDateTime.now();
+        JournalEntryEntity journalEntry = journalEntryRepository.save(JournalEntryEntity.builder()
+                .reference(reference)
                 .type(TransactionType.TRANSFER)
-                .status(TransactionStatus.SUCCESS)
-                .amount(-amountInKobo) // Negative for outgoing
-                .createdAt(LocalDateTime.now())
-                .build();
-        TransactionEntity savedSenderTransaction = transactionRepository.save(senderTransaction);
-        log.info("Sender transaction recorded - Reference: {}, Transaction ID: {}, Amount: {}", 
-                savedSenderTransaction.getReference(), savedSenderTransaction.getId(), savedSenderTransaction.getAmount());
-
-        // Create transaction for recipient (INCOMING)
-        TransactionEntity recipientTransaction = TransactionEntity.builder()
-                .reference(reference + "_IN")
-                .user(recipient)
+                .createdAt(now)
+                .build());
+
+        // Both users are only needed as foreign keys, so proxies avoid loading the user rows
+        List<TransactionEntity> postings = transactionRepository.saveAll(List.of(
+                posting(journalEntry, userRepository.getReferenceById(senderUserId), senderWalletId, -amountInKobo, now),
+                posting(journalEntry, userRepository.getReferenceById(recipientUserId), recipientWalletId, amountInKobo, now)));
+
+        log.debug("Transfer posted - Reference: {}, Journal Entry ID: {}, Debit Posting ID: {}, Credit Posting ID: {}, Amount: {}",
+                reference, journalEntry.getId(), postings.get(0).getId(), postings.get(1).getId(), amountInKobo);
+    }
+
+    private static TransactionEntity posting(JournalEntryEntity journalEntry, UserEntity user, Long walletId,
+                                             long amountInKobo, LocalDateTime createdAt) {
+        return TransactionEntity.builder()
+                .journalEntry(journalEntry)
+                .user(user)
+                .walletId(walletId)
                 .type(TransactionType.TRANSFER)
                 .status(TransactionStatus.SUCCESS)
-                .amount(amountInKobo) // Positive for incoming
-                .createdAt(LocalDateTime.now())
+                .amount(amountInKobo) // Negative for the sender, positive for the recipient
+                .createdAt(createdAt)
                 .build();
-        TransactionEntity savedRecipientTransaction = transactionRepository.save(recipientTransaction);
-        log.info("Recipient transaction recorded - Reference: {}, Transaction ID: {}, Amount: {}", 
-                savedRecipientTransaction.getReference(), savedRecipientTransaction.getId(), savedRecipientTransaction.getAmount());
-
-        log.info("Transfer completed successfully - Reference: {}, Sender: {}, Recipient: {}, Amount: {}", 
-                reference, senderWallet.getWalletNumber(), recipientWallet.getWalletNumber(), amountInKobo);
     }
 
     /**
-     * Generates a unique transaction reference
-     * Ensures uniqueness by checking against existing transaction references
+     * Runs one transfer attempt per iteration, retrying on lock timeouts, deadlocks,
+     * serialization failures and optimistic version conflicts, up to wallet.transfer.max-attempts.
+     * Each attempt is a fresh transaction, so a retry never sees state from the failed one.
+     * Retrying is skipped when joining a caller's transaction, because that transaction
+     * is already marked rollback-only.
      */
-    private String generateTransactionReference() {
-        SecureRandom random = new SecureRandom();
-        String reference;
-        int attempts = 0;
-        int maxAttempts = 10; // Prevent infinite loop
-        
-        do {
-            // Generate 16-character alphanumeric reference
-            StringBuilder sb = new StringBuilder();
-            String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-            for (int i = 0; i < 16; i++) {
-                sb.append(chars.charAt(random.nextInt(chars.length())));
-            }
-            reference = sb.toString();
-            attempts++;
-            
-            if (attempts >= maxAttempts) {
-                log.error("Failed to generate unique transaction reference after {} attempts", maxAttempts);
-                throw new RuntimeException("Unable to generate unique transaction reference");
+    private void executeWithRetry(Runnable attempt) {
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                attempt.run();
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attemptNumber >= attempts) {
+                    retryExhaustedCounter.increment();
+                    log.error("Transfer failed - Conflict persisted after {} attempts", attemptNumber, e);
+                    throw e;
+                }
+                retryCounter.increment();
+                log.warn("Transfer attempt {} of {} hit a conflict, retrying: {}", attemptNumber, attempts, e.getMessage());
+                pause(backoffMillis(attemptNumber));
             }
-        } while (transactionRepository.findByReference(reference + "_OUT").isPresent() ||
-                 transactionRepository.findByReference(reference + "_IN").isPresent());
+        }
+    }
 
-        log.debug("Generated unique transaction reference: {} (attempts: {})", reference, attempts);
-        return reference;
+    /**
+     * Exponential backoff with full jitter, so transfers that collided once
+     * do not collide again on the same schedule
+     */
+    private long backoffMillis(int attemptNumber) {
+        long ceiling = Math.min(retryMaxBackoffMillis, retryBackoffMillis << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying transfer", e);
+        }
     }
-}
 
+    private record TransferParties(Long senderWalletId, WalletRef recipient) {
+    }
+
+    /**
+     * How wallet rows are protected during a transfer, selected per deployment
+     * via wallet.transfer.locking-mode
+     */
+    public enum LockingMode {
+        /** Conditional single-statement UPDATEs, no explicit locks */
+        ATOMIC,
+        /** SELECT ... FOR UPDATE on both wallets in ascending id order */
+        PESSIMISTIC,
+        /** Unlocked reads, @Version check on commit, retried on conflict */
+        OPTIMISTIC
+    }
+}
@@ -0,0 +1,275 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.WalletNumberBlockEntity;
+import com.stage8.wallet.repository.WalletNumberBlockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issues 10-digit wallet numbers without touching the wallet table
+ *
+ * Each node reserves a block of sequence values from the hi-lo counter row and hands them out
+ * from memory, so a signup burst costs one counter UPDATE per block instead of a lookup per signup.
+ * Sequence values are scrambled with a keyed Feistel permutation (a bijection, so still unique)
+ * to keep consecutive signups from getting guessable neighbouring numbers, and a Luhn check
+ * digit is appended to catch mistyped numbers.
+ *
+ * Blocks are reserved on a background thread, the next one as soon as the current block is half
+ * used. Signups run inside a transaction that already holds a pooled connection, so reserving
+ * on the caller's thread would need a second connection per signup and a burst of signups
+ * could drain the pool waiting on each other.
+ *
+ * Issued numbers always start with 1-9. Numbers issued by the old random generator always
+ * started with 0, so the two ranges never overlap.
+ *
+ * CRITICAL: wallet.number.permutation-key must never change once numbers have been issued,
+ * otherwise new numbers may collide with existing ones (the unique constraint on
+ * WalletEntity.walletNumber is the backstop).
+ */
+@Slf4j
+@Component
+public class WalletNumberAllocator {
+
+    static final String COUNTER_NAME = "wallet_number";
+
+    // Sequence space is split into two halves of 30,000 each for the Feistel rounds
+    private static final int HALF = 30_000;
+    private static final long CAPACITY = (long) HALF * HALF;
+    private static final long BODY_OFFSET = 100_000_000L;
+    private static final int ROUNDS = 4;
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    private static final Duration RESERVE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final WalletNumberBlockRepository blockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final long[] roundKeys;
+    private final ExecutorService reserver;
+
+    private long nextValue;
+    private long blockEnd;
+    // Block reserved ahead of time, -1 when none is ready
+    private long reservedBlock = -1;
+    private boolean reserving;
+    private RuntimeException reserveFailure;
+
+    public WalletNumberAllocator(WalletNumberBlockRepository blockRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${wallet.number.block-size:1000}") int blockSize,
+                                 @Value("${wallet.number.permutation-key:stage8-wallet}") String permutationKey) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("wallet.number.block-size must be positive");
+        }
+        this.blockRepository = blockRepository;
+        this.blockSize = blockSize;
+        this.roundKeys = deriveRoundKeys(permutationKey);
+        // Reservations commit on their own: a block handed out in memory must stay claimed
+        // even if the signup that triggered the reservation rolls back
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reserver = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wallet-number-reserver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    synchronized void reserveFirstBlock() {
+        requestReservation();
+    }
+
+    /**
+     * Returns the next unused wallet number
+     *
+     * Never touches the database on the caller's thread; only waits if the background
+     * reservation has not caught up yet.
+     *
+     * @throws IllegalStateException if the number space is exhausted or no block could be reserved
+     */
+    public String allocate() {
+        long value;
+        synchronized (this) {
+            if (nextValue >= blockEnd) {
+                startReservedBlock();
+            }
+            value = nextValue++;
+            if (blockEnd - nextValue <= blockSize / 2) {
+                requestReservation();
+            }
+        }
+        String body = Long.toString(BODY_OFFSET + permute(value));
+        return body + luhnCheckDigit(body);
+    }
+
+    /**
+     * Switches to the block reserved ahead of time, waiting for it if necessary. Caller holds the monitor.
+     */
+    private void startReservedBlock() {
+        long deadline = System.nanoTime() + RESERVE_TIMEOUT.toNanos();
+        while (reservedBlock < 0) {
+            if (reserveFailure != null) {
+                RuntimeException failure = reserveFailure;
+                reserveFailure = null;
+                throw new IllegalStateException("Could not reserve a wallet number block", failure);
+            }
+            requestReservation();
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("Timed out waiting for a wallet number block");
+            }
+            try {
+                // Releases the monitor so the reserver can hand the block over
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for a wallet number block", e);
+            }
+        }
+        long block = reservedBlock;
+        reservedBlock = -1;
+        if (block * blockSize >= CAPACITY) {
+            log.error("Wallet number space exhausted - Block: {}", block);
+            throw new IllegalStateException("Wallet number space exhausted");
+        }
+        nextValue = block * blockSize;
+        blockEnd = Math.min(nextValue + blockSize, CAPACITY);
+        log.info("Wallet number block started - Block: {}, Range: [{}, {})", block, nextValue, blockEnd);
+    }
+
+    /**
+     * Starts a background reservation unless one is already reserved or in flight. Caller holds the monitor.
+     */
+    private void requestReservation() {
+        if (reservedBlock >= 0 || reserving) {
+            return;
+        }
+        reserving = true;
+        reserver.execute(this::reserveInBackground);
+    }
+
+    private void reserveInBackground() {
+        long block = -1;
+        RuntimeException failure = null;
+        try {
+            block = reserveBlock();
+        } catch (RuntimeException e) {
+            log.error("Wallet number block reservation failed", e);
+            failure = e;
+        }
+        synchronized (this) {
+            reserving = false;
+            reservedBlock = block;
+            reserveFailure = failure;
+            notifyAll();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reserver.shutdownNow();
+    }
+
+    /**
+     * Claims the next block index from the counter row, creating the row on first use
+     */
+    private long reserveBlock() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long block = transactionTemplate.execute(status -> {
+                    if (blockRepository.advance(COUNTER_NAME) == 0) {
+                        blockRepository.saveAndFlush(WalletNumberBlockEntity.builder()
+                                .name(COUNTER_NAME)
+                                .nextBlock(1L)
+                                .build());
+                        return 0L;
+                    }
+                    return blockRepository.findNextBlock(COUNTER_NAME)
+                            .map(next -> next - 1)
+                            .orElseThrow(() -> new IllegalStateException("Wallet number counter disappeared"));
+                });
+                return block;
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the counter row at the same time - claim through the UPDATE path instead
+                if (attempt >= MAX_RESERVE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Wallet number counter initialized concurrently, retrying reservation");
+            }
+        }
+    }
+
+    /**
+     * Keyed Feistel network over [0, 30000) x [0, 30000); a bijection on [0, 9 x 10^8)
+     */
+    private long permute(long value) {
+        long left = value / HALF;
+        long right = value % HALF;
+        for (long key : roundKeys) {
+            long mixed = (left + round(right, key)) % HALF;
+            left = right;
+            right = mixed;
+        }
+        return left * HALF + right;
+    }
+
+    private static long round(long half, long key) {
+        // SplitMix64 finalizer - cheap, well-distributed round function
+        long z = half * 0x9E3779B97F4A7C15L + key;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return Math.floorMod(z, HALF);
+    }
+
+    private static long[] deriveRoundKeys(String permutationKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(permutationKey.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            long[] keys = new long[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = buffer.getLong();
+            }
+            return keys;
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 algorithm not available", e);
+        }
+    }
+
+    /**
+     * Luhn (mod 10) check digit for the given digits
+     */
+    static int luhnCheckDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
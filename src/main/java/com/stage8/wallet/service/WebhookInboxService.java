@@ -0,0 +1,430 @@
+package com.stage8.wallet.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stage8.wallet.dto.PaystackWebhookPayload;
+import com.stage8.wallet.model.entity.WebhookInboxEntity;
+import com.stage8.wallet.model.enums.WebhookInboxStatus;
+import com.stage8.wallet.repository.WebhookInboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable inbox for Paystack webhooks
+ *
+ * The webhook endpoint only verifies the signature and stores the event here, so Paystack gets its
+ * 200 without waiting on wallet updates - and a slow database no longer turns into a storm of
+ * redeliveries. Workers claim batches with FOR UPDATE SKIP LOCKED and settle each batch through
+ * {@link PaystackWebhookService#settleBatch} in the same transaction that marks it PROCESSED, so a
+ * settlement burst costs a handful of statements per batch rather than four per event. If the batch
+ * as a whole fails, its events are applied one transaction each. A failed event is retried with a
+ * growing delay until wallet.webhook.inbox.max-attempts, then left FAILED for {@link #replayFailed()}.
+ *
+ * Metrics: wallet.webhook.inbox.pending and wallet.webhook.inbox.failed (events), wallet.webhook.inbox.lag
+ * (age of the oldest unapplied event) and wallet.webhook.inbox.delay (receipt to applied).
+ */
+@Slf4j
+@Service
+public class WebhookInboxService {
+
+    private static final Set<String> HANDLED_EVENTS = Set.of("charge.success", "charge.failed");
+
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final PaystackWebhookService paystackWebhookService;
+    private final JsonFactory jsonFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration claimTimeout;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer processingDelay;
+    private final Counter failures;
+
+    public WebhookInboxService(WebhookInboxRepository webhookInboxRepository,
+                               PaystackWebhookService paystackWebhookService,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${wallet.webhook.inbox.enabled:true}") boolean enabled,
+                               @Value("${wallet.webhook.inbox.workers:2}") int workerCount,
+                               @Value("${wallet.webhook.inbox.batch-size:100}") int batchSize,
+                               @Value("${wallet.webhook.inbox.max-attempts:5}") int maxAttempts,
+                               @Value("${wallet.webhook.inbox.retry-backoff:30s}") Duration retryBackoff,
+                               @Value("${wallet.webhook.inbox.claim-timeout:5m}") Duration claimTimeout) {
+        this.webhookInboxRepository = webhookInboxRepository;
+        this.paystackWebhookService = paystackWebhookService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.enabled = enabled;
+        this.workerCount = Math.max(1, workerCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.claimTimeout = claimTimeout;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Gauges read the values sampled by the last drain, so a scrape never queries the database
+        Gauge.builder("wallet.webhook.inbox.pending", pending, AtomicLong::get)
+                .description("Webhook events waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("wallet.webhook.inbox.failed", failed, AtomicLong::get)
+                .description("Webhook events that exhausted their attempts and wait for a replay")
+                .register(meterRegistry);
+        Gauge.builder("wallet.webhook.inbox.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest webhook event waiting to be applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.processingDelay = Timer.builder("wallet.webhook.inbox.delay")
+                .description("Time from receiving a webhook event to applying it")
+                .register(meterRegistry);
+        this.failures = Counter.builder("wallet.webhook.inbox.failures")
+                .description("Failed attempts to apply a webhook event")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores a webhook whose signature has already been verified
+     *
+     * @throws IllegalArgumentException if the payload is not valid JSON
+     */
+    public Receipt receive(byte[] payload) {
+        return receive(payload, 0, payload.length);
+    }
+
+    /**
+     * Stores the webhook held in the first length bytes of payload from offset. Only the four
+     * fields the worker needs are extracted; the bytes are copied once, into the stored body.
+     *
+     * @throws IllegalArgumentException if the payload is not valid JSON
+     */
+    public Receipt receive(byte[] payload, int offset, int length) {
+        PaystackWebhookPayload webhook;
+        try {
+            webhook = parse(payload, offset, length);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed webhook payload", e);
+        }
+
+        String event = webhook.getEvent();
+        if (!HANDLED_EVENTS.contains(event) || webhook.getData() == null || webhook.getData().getReference() == null) {
+            log.info("Webhook ignored - Event: {}", event);
+            return Receipt.IGNORED;
+        }
+
+        String reference = webhook.getData().getReference();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            webhookInboxRepository.saveAndFlush(WebhookInboxEntity.builder()
+                    .event(event)
+                    .reference(reference)
+                    .paymentStatus(webhook.getData().getStatus())
+                    .amount(webhook.getData().getAmount())
+                    .payload(new String(payload, offset, length, StandardCharsets.UTF_8))
+                    .status(WebhookInboxStatus.RECEIVED)
+                    .receivedAt(now)
+                    .nextAttemptAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Paystack redelivered an event we already hold
+            log.atInfo()
+                    .addKeyValue("event", event)
+                    .addKeyValue("reference", reference)
+                    .log("Duplicate webhook acknowledged");
+            return Receipt.DUPLICATE;
+        }
+        log.atInfo()
+                .addKeyValue("event", event)
+                .addKeyValue("reference", reference)
+                .addKeyValue("bytes", length)
+                .log("Webhook stored in inbox");
+        return Receipt.STORED;
+    }
+
+    /**
+     * Streams through the body picking out event, data.reference, data.status and data.amount.
+     * Everything else - customer, authorization, metadata - is skipped without being materialized.
+     */
+    private PaystackWebhookPayload parse(byte[] payload, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Malformed webhook payload");
+            }
+            PaystackWebhookPayload webhook = new PaystackWebhookPayload();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("event".equals(field)) {
+                    webhook.setEvent(textOrSkip(parser));
+                } else if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                    webhook.setData(parseData(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return webhook;
+        }
+    }
+
+    private static PaystackWebhookPayload.PaystackWebhookData parseData(JsonParser parser) throws IOException {
+        PaystackWebhookPayload.PaystackWebhookData data = new PaystackWebhookPayload.PaystackWebhookData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "reference" -> data.setReference(textOrSkip(parser));
+                case "status" -> data.setStatus(textOrSkip(parser));
+                case "amount" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        data.setAmount(parser.getLongValue());
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        try {
+                            data.setAmount(Long.parseLong(parser.getText()));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Malformed webhook amount");
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private static String textOrSkip(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.webhook.inbox.poll-interval:500ms}")
+    public void scheduledDrain() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Runs every worker until no event is due
+     *
+     * @return number of events claimed
+     */
+    public int drain() {
+        int recovered = transactionTemplate.execute(status ->
+                webhookInboxRepository.requeueStale(LocalDateTime.now().minus(claimTimeout)));
+        if (recovered > 0) {
+            log.warn("Requeued {} webhook events abandoned by a previous worker", recovered);
+        }
+
+        List<Future<Integer>> running = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            running.add(workers.submit(this::drainBatches));
+        }
+        int processed = 0;
+        for (Future<Integer> worker : running) {
+            try {
+                processed += worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Webhook inbox worker failed", e.getCause());
+            }
+        }
+        sampleBacklog();
+        return processed;
+    }
+
+    /**
+     * Gives every FAILED event a fresh set of attempts
+     *
+     * @return number of events returned to the inbox
+     */
+    public int replayFailed() {
+        int replayed = transactionTemplate.execute(status -> webhookInboxRepository.replayFailed(LocalDateTime.now()));
+        log.info("Failed webhook events replayed - Count: {}", replayed);
+        return replayed;
+    }
+
+    /**
+     * Gives one FAILED event a fresh set of attempts
+     *
+     * @return false if there is no failed event with that id
+     */
+    public boolean replayFailed(Long id) {
+        return transactionTemplate.execute(status -> webhookInboxRepository.replayFailed(id, LocalDateTime.now())) > 0;
+    }
+
+    /**
+     * Current inbox backlog, also refreshing the gauges
+     */
+    public Backlog backlog() {
+        return sampleBacklog();
+    }
+
+    private Backlog sampleBacklog() {
+        long received = webhookInboxRepository.countByStatus(WebhookInboxStatus.RECEIVED);
+        long failedEvents = webhookInboxRepository.countByStatus(WebhookInboxStatus.FAILED);
+        Duration lag = webhookInboxRepository.findOldestReceivedAt()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()))
+                .orElse(Duration.ZERO);
+        pending.set(received);
+        failed.set(failedEvents);
+        lagMillis.set(lag.toMillis());
+        return new Backlog(received, failedEvents, lag);
+    }
+
+    private int drainBatches() {
+        int processed = 0;
+        List<WebhookInboxEntity> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            settle(batch);
+            processed += batch.size();
+        }
+        return processed;
+    }
+
+    /**
+     * Marks the next batch PROCESSING and commits, so the row locks are held only for the claim
+     */
+    private List<WebhookInboxEntity> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<WebhookInboxEntity> batch = webhookInboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                    WebhookInboxStatus.RECEIVED, now, Limit.of(batchSize));
+            for (WebhookInboxEntity event : batch) {
+                event.setStatus(WebhookInboxStatus.PROCESSING);
+                event.setClaimedAt(now);
+                event.setAttempts(event.getAttempts() + 1);
+            }
+            return batch;
+        });
+    }
+
+    /**
+     * Settles the batch in one transaction; events rejected by the settlement go down the failure path
+     */
+    private void settle(List<WebhookInboxEntity> batch) {
+        Map<String, String> rejected;
+        try {
+            rejected = transactionTemplate.execute(status -> {
+                Map<String, String> failed = paystackWebhookService.settleBatch(batch.stream()
+                        .map(event -> new PaystackWebhookService.Settlement(event.getReference(),
+                                event.getPaymentStatus(), event.getAmount()))
+                        .toList());
+                List<Long> settledIds = batch.stream()
+                        .filter(event -> !failed.containsKey(event.getReference()))
+                        .map(WebhookInboxEntity::getId)
+                        .toList();
+                if (!settledIds.isEmpty()
+                        && webhookInboxRepository.completeAll(settledIds, LocalDateTime.now()) != settledIds.size()) {
+                    // Someone else already settled some of these rows - roll back rather than apply them twice
+                    throw new IllegalStateException("Webhook events are no longer being processed");
+                }
+                return failed;
+            });
+        } catch (RuntimeException e) {
+            // One transaction per event, so a single bad event cannot hold back the rest of the batch
+            log.warn("Webhook batch settlement failed, applying {} events one by one", batch.size(), e);
+            batch.forEach(this::apply);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (WebhookInboxEntity event : batch) {
+            String reason = rejected.get(event.getReference());
+            if (reason == null) {
+                processingDelay.record(Duration.between(event.getReceivedAt(), now));
+            } else {
+                recordFailure(event, reason);
+            }
+        }
+    }
+
+    private void apply(WebhookInboxEntity event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paystackWebhookService.processWebhookEvent(event.getReference(), event.getPaymentStatus(), event.getAmount());
+                if (webhookInboxRepository.complete(event.getId(), WebhookInboxStatus.PROCESSED, null, LocalDateTime.now()) == 0) {
+                    // Someone else already settled this row - roll back rather than apply it twice
+                    throw new IllegalStateException("Webhook event is no longer being processed");
+                }
+            });
+            processingDelay.record(Duration.between(event.getReceivedAt(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            recordFailure(event, e.getMessage() != null ? e.getMessage() : "Webhook processing failed");
+        }
+    }
+
+    private void recordFailure(WebhookInboxEntity event, String reason) {
+        failures.increment();
+        if (event.getAttempts() < maxAttempts) {
+            LocalDateTime nextAttemptAt = LocalDateTime.now().plus(retryBackoff.multipliedBy(event.getAttempts()));
+            log.warn("Webhook event failed, retrying at {} - Event: {}, Reference: {}, Attempt: {}, Reason: {}",
+                    nextAttemptAt, event.getEvent(), event.getReference(), event.getAttempts(), reason);
+            transactionTemplate.execute(status -> webhookInboxRepository.retry(event.getId(), reason, nextAttemptAt));
+        } else {
+            log.error("Webhook event failed - Event: {}, Reference: {}, Reason: {}",
+                    event.getEvent(), event.getReference(), reason);
+            transactionTemplate.execute(status -> webhookInboxRepository.complete(event.getId(),
+                    WebhookInboxStatus.FAILED, reason, LocalDateTime.now()));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Events still PROCESSING when the pool dies are requeued after claim-timeout
+        workers.shutdownNow();
+    }
+
+    public enum Receipt {
+        STORED,
+        DUPLICATE,
+        IGNORED
+    }
+
+    public record Backlog(long pending, long failed, Duration lag) {
+    }
+}
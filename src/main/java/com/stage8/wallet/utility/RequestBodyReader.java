@@ -0,0 +1,71 @@
+package com.stage8.wallet.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads request bodies into a per-thread buffer that is reused across requests
+ *
+ * Servlet threads are pooled, so in steady state a webhook body is read with no allocation at all.
+ * Buffers that had to grow past RETAINED_CAPACITY are dropped after use, so an occasional large
+ * body does not pin memory on every thread.
+ */
+@Component
+public class RequestBodyReader {
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[INITIAL_CAPACITY]);
+    private final int maxBodySize;
+
+    public RequestBodyReader(@Value("${wallet.webhook.max-body-size:1MB}") DataSize maxBodySize) {
+        this.maxBodySize = (int) Math.min(Integer.MAX_VALUE - 8, maxBodySize.toBytes());
+    }
+
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Reads the whole stream. The returned body shares the thread's buffer: it is only valid
+     * until the next read on the same thread, and must be copied if kept beyond the request.
+     *
+     * @throws IllegalArgumentException if the body is larger than wallet.webhook.max-body-size
+     */
+    public Body read(InputStream in) throws IOException {
+        byte[] buffer = buffers.get();
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                if (buffer.length >= maxBodySize) {
+                    if (in.read() == -1) {
+                        break;
+                    }
+                    throw new IllegalArgumentException("Request body exceeds " + maxBodySize + " bytes");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, maxBodySize));
+            }
+        }
+        if (length > maxBodySize) {
+            throw new IllegalArgumentException("Request body exceeds " + maxBodySize + " bytes");
+        }
+        if (buffer.length <= RETAINED_CAPACITY) {
+            buffers.set(buffer);
+        }
+        return new Body(buffer, length);
+    }
+
+    /**
+     * The first length bytes of bytes
+     */
+    public record Body(byte[] bytes, int length) {
+    }
+}
@@ -0,0 +1,42 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization=true),
+-- so every statement here must be idempotent.
+
+-- Partial indexes for the selective history filters: only the rows in a non-final or failed
+-- state are indexed, so these stay small while the SUCCESS majority uses
+-- idx_transaction_user_created_id.
+CREATE INDEX IF NOT EXISTS idx_transaction_user_pending
+    ON transaction_entity (user_id, created_at DESC, id DESC)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_transaction_user_failed
+    ON transaction_entity (user_id, created_at DESC, id DESC)
+    WHERE status = 'FAILED';
+
+-- Reconciliation sweeps over deposits still awaiting a Paystack webhook, across all users
+CREATE INDEX IF NOT EXISTS idx_transaction_pending_deposit
+    ON transaction_entity (created_at)
+    WHERE type = 'DEPOSIT' AND status = 'PENDING';
+
+-- Ids moved from IDENTITY columns to pooled sequences (allocation 50). Move each sequence past
+-- the ids already issued by the identity columns; GREATEST keeps it from ever going backwards.
+SELECT setval('user_entity_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM user_entity) + 50,
+                                          (SELECT last_value FROM user_entity_seq)));
+SELECT setval('wallet_entity_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM wallet_entity) + 50,
+                                            (SELECT last_value FROM wallet_entity_seq)));
+SELECT setval('transaction_entity_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM transaction_entity) + 50,
+                                                 (SELECT last_value FROM transaction_entity_seq)));
+SELECT setval('journal_entry_entity_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM journal_entry_entity) + 50,
+                                                   (SELECT last_value FROM journal_entry_entity_seq)));
+SELECT setval('api_keys_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM api_keys) + 50,
+                                       (SELECT last_value FROM api_keys_seq)));
+
+-- Async transfer queue: workers only ever scan the unfinished rows, oldest first, so the
+-- index skips the ever-growing tail of completed transfers
+CREATE INDEX IF NOT EXISTS idx_queued_transfer_open
+    ON queued_transfer_entity (status, id)
+    WHERE status IN ('QUEUED', 'PROCESSING');
+
+-- Webhook inbox: same shape as the transfer queue - workers only scan events not yet applied
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_open
+    ON webhook_inbox_entity (status, id)
+    WHERE status IN ('RECEIVED', 'PROCESSING');
@@ -0,0 +1,107 @@
+package com.stage8.wallet.benchmark;
+
+import com.stage8.wallet.WalletApplication;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.service.HotWalletService;
+import com.stage8.wallet.service.TransferService;
+import com.stage8.wallet.support.WalletFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent transfers into a single merchant wallet
+ *
+ * standard credits the merchant row in place, so every transfer queues on its row lock; hot lists
+ * the merchant in wallet.hot-wallet.wallet-numbers, so transfers only lock their own sender and
+ * append to the pending credit log while HotWalletService folds in the background. Each benchmark
+ * thread sends from its own wallet, leaving the merchant row as the only shared write.
+ *
+ * Runs against in-memory H2 by default; pass -Dspring.datasource.url=... (with username and
+ * password) to measure against PostgreSQL, where the row lock contention is more representative.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.stage8.wallet.benchmark.HotWalletTransferBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotWalletTransferBenchmark {
+
+    private static final String MERCHANT_WALLET_NUMBER = "9000000001";
+
+    @Param({"standard", "hot"})
+    public String merchantWallet;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private WalletFixtures fixtures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:hot-wallet-benchmark-" + merchantWallet + ";DB_CLOSE_DELAY=-1",
+                        "wallet.hot-wallet.wallet-numbers=" + ("hot".equals(merchantWallet) ? MERCHANT_WALLET_NUMBER : ""),
+                        "logging.level.com.stage8.wallet=WARN")
+                .run();
+        transferService = context.getBean(TransferService.class);
+        fixtures = new WalletFixtures(context.getBean(UserRepository.class), context.getBean(WalletRepository.class));
+
+        fixtures.wallet(fixtures.user(), MERCHANT_WALLET_NUMBER, 0L);
+        // Resolve the merchant wallet now rather than on the first scheduled fold
+        context.getBean(HotWalletService.class).foldAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        private long userId;
+
+        @Setup(Level.Trial)
+        public void setUp(HotWalletTransferBenchmark benchmark) {
+            userId = benchmark.fixtures.userWithWallet(Long.MAX_VALUE / 2).getId();
+        }
+    }
+
+    @Benchmark
+    public void transferToMerchant(Sender sender) {
+        transferService.transfer(sender.userId, MERCHANT_WALLET_NUMBER, 100L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HotWalletTransferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.stage8.wallet.benchmark;
+
+import com.stage8.wallet.security.WebhookSignatureVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-webhook cost of checking the x-paystack-signature header
+ *
+ * perRequestMacAndHexString reproduces the previous behaviour (body decoded to a String, Mac looked
+ * up and keyed on every call, digest hex-encoded byte by byte and compared with String.equals);
+ * threadLocalMacOverBytes is the current WebhookSignatureVerifier path.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.stage8.wallet.benchmark.WebhookSignatureBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookSignatureBenchmark {
+
+    private static final String SECRET = "sk_test_benchmark_webhook_secret";
+
+    @Param({"1024", "10240"})
+    public int payloadBytes;
+
+    private WebhookSignatureVerifier verifier;
+    private byte[] body;
+    private String signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        verifier = new WebhookSignatureVerifier(SECRET);
+        StringBuilder json = new StringBuilder("{\"event\":\"charge.success\",\"data\":{\"reference\":\"ref\",\"metadata\":\"");
+        while (json.length() < payloadBytes - 3) {
+            json.append('x');
+        }
+        body = json.append("\"}}").toString().getBytes(StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        signature = HexFormat.of().formatHex(mac.doFinal(body));
+    }
+
+    @Benchmark
+    public boolean perRequestMacAndHexString() throws Exception {
+        String payload = new String(body, StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString().equals(signature);
+    }
+
+    @Benchmark
+    public boolean threadLocalMacOverBytes() {
+        return verifier.verify(body, signature);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebhookSignatureBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
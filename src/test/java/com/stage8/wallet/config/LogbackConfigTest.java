@@ -0,0 +1,56 @@
+package com.stage8.wallet.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogbackConfigTest {
+
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    @AfterEach
+    void tearDown() {
+        loggingSystem.cleanUp();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void jsonLinesShouldCarryTheFormattedMessage() {
+        // Given - logback configured from logback-spring.xml the way Spring Boot does it
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(new StandardEnvironment()),
+                "classpath:logback-spring.xml", null);
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger logger = context.getLogger("com.stage8.wallet.service.TransferService");
+        CountingAsyncAppender async = (CountingAsyncAppender) context.getLogger(Logger.ROOT_LOGGER_NAME)
+                .getAppender("ASYNC_JSON_CONSOLE");
+        ConsoleAppender<ILoggingEvent> console = (ConsoleAppender<ILoggingEvent>) async.getAppender("JSON_CONSOLE");
+
+        LoggingEvent event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+                "Transfer completed - Reference: {}", null, new Object[]{"REF123"});
+        event.setKeyValuePairs(List.of(new KeyValuePair("amount", 500L)));
+
+        // When
+        String json = new String(console.getEncoder().encode(event), StandardCharsets.UTF_8);
+
+        // Then
+        assertThat(json).contains("\"formattedMessage\":\"Transfer completed - Reference: REF123\"");
+        assertThat(json).contains("\"amount\"");
+        assertThat(json).doesNotContain("\"arguments\"");
+    }
+}
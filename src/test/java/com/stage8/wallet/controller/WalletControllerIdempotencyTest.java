@@ -0,0 +1,214 @@
+package com.stage8.wallet.controller;
+
+import com.stage8.wallet.model.entity.IdempotencyKeyEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.repository.IdempotencyKeyRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.security.JwtService;
+import com.stage8.wallet.service.IdempotencyService;
+import com.stage8.wallet.service.PaystackService;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wallet-idempotency;DB_CLOSE_DELAY=-1"
+})
+class WalletControllerIdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    private String senderToken;
+    private WalletEntity senderWallet;
+    private WalletEntity recipientWallet;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        UserEntity sender = fixtures.user();
+        senderWallet = fixtures.wallet(sender, 100_000L);
+        recipientWallet = fixtures.wallet(fixtures.user(), 0L);
+        senderToken = jwtService.generateToken(sender.getId().toString());
+    }
+
+    private MockHttpServletRequestBuilder transfer(String idempotencyKey, long amount) {
+        return post("/wallet/transfer")
+                .header("Authorization", "Bearer " + senderToken)
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"wallet_number\":\"" + recipientWallet.getWalletNumber() + "\",\"amount\":" + amount + "}");
+    }
+
+    @Test
+    void retriedTransferShouldMoveMoneyOnce() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(transfer(key, 1_000L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        // When
+        mockMvc.perform(transfer(key, 1_000L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.status").value("success"));
+
+        // Then
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(99_000L);
+        assertThat(fixtures.balanceOf(recipientWallet)).isEqualTo(1_000L);
+    }
+
+    @Test
+    void retryShouldReplayStoredFailure() throws Exception {
+        // Given - a 400 is a final outcome and is stored like a success, even once the balance would cover it
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(transfer(key, 500_000L))
+                .andExpect(status().isBadRequest());
+        WalletEntity toppedUp = walletRepository.findById(senderWallet.getId()).orElseThrow();
+        toppedUp.setBalance(1_000_000L);
+        walletRepository.save(toppedUp);
+
+        // When / Then
+        mockMvc.perform(transfer(key, 500_000L))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.error").value("Insufficient balance"));
+    }
+
+    @Test
+    void reusingKeyForDifferentRequestShouldBeRejected() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(transfer(key, 1_000L)).andExpect(status().isOk());
+
+        // When / Then
+        mockMvc.perform(transfer(key, 2_000L))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(99_000L);
+    }
+
+    @Test
+    void retriedDepositShouldInitializePaystackOnce() throws Exception {
+        // Given
+        when(paystackService.initializeTransaction(anyLong(), anyString(), anyString()))
+                .thenReturn(new PaystackService.PaystackInitResponse("ref", "https://checkout.paystack.com/ref"));
+        String key = UUID.randomUUID().toString();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/wallet/deposit")
+                            .header("Authorization", "Bearer " + senderToken)
+                            .header("Idempotency-Key", key)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\":5000}"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        }
+
+        // Then
+        verify(paystackService, times(1)).initializeTransaction(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void requestsWithoutKeyShouldNotBeStored() throws Exception {
+        // Given
+        long before = idempotencyKeyRepository.count();
+
+        // When
+        mockMvc.perform(post("/wallet/transfer")
+                        .header("Authorization", "Bearer " + senderToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"wallet_number\":\"" + recipientWallet.getWalletNumber() + "\",\"amount\":1000}"))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void retryShouldTakeOverAbandonedClaim() {
+        // Given - the first request dies after claiming the key, before anything is stored or released
+        long userId = senderWallet.getUser().getId();
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> request = Map.of("amount", 1_000);
+        AtomicInteger runs = new AtomicInteger();
+        assertThatThrownBy(() -> idempotencyService.execute(userId, key, "transfer", request, () -> {
+            throw new Error("process died");
+        })).isInstanceOf(Error.class);
+
+        // While the claim is fresh the owner may still be running
+        assertThat(idempotencyService.execute(userId, key, "transfer", request, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(Map.of("status", "success"));
+        }).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+        IdempotencyKeyEntity claim = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key).orElseThrow();
+        claim.setClaimedAt(LocalDateTime.now().minusMinutes(5));
+        idempotencyKeyRepository.save(claim);
+
+        // When
+        ResponseEntity<?> response = idempotencyService.execute(userId, key, "transfer", request, () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.ok(Map.of("status", "success"));
+        });
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(runs).hasValue(1);
+        assertThat(idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key).orElseThrow().getResponseStatus())
+                .isEqualTo(200);
+    }
+}
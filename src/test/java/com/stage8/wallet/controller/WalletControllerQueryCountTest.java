@@ -0,0 +1,180 @@
+package com.stage8.wallet.controller;
+
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.security.JwtService;
+import com.stage8.wallet.service.PaystackService;
+import com.stage8.wallet.support.WalletFixtures;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each wallet endpoint issues, so a change that reintroduces
+ * user hydration or an N+1 shows up as a failing test rather than as latency in production
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:wallet-query-count;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.stage8.wallet.controller.WalletControllerQueryCountTest$RecordingStatementInspector"
+})
+class WalletControllerQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockBean
+    private PaystackService paystackService;
+
+    private String senderToken;
+    private String recipientWalletNumber;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        UserEntity sender = fixtures.userWithWallet(1_000_000L);
+        UserEntity recipient = fixtures.userWithWallet(0L);
+        senderToken = jwtService.generateToken(sender.getId().toString());
+        recipientWalletNumber = walletRepository.findByUser_Id(recipient.getId()).orElseThrow().getWalletNumber();
+    }
+
+    private List<String> statementsFor(RequestBuilder request) throws Exception {
+        RecordingStatementInspector.start();
+        try {
+            mockMvc.perform(request).andExpect(status().isOk());
+        } finally {
+            RecordingStatementInspector.stop();
+        }
+        return RecordingStatementInspector.statements();
+    }
+
+    @Test
+    void balanceShouldIssueASingleQuery() throws Exception {
+        // When
+        List<String> statements = statementsFor(get("/wallet/balance")
+                .header("Authorization", "Bearer " + senderToken));
+
+        // Then
+        assertThat(statements).hasSize(1);
+        assertThat(statements).noneMatch(sql -> sql.contains("user_entity"));
+    }
+
+    @Test
+    void transactionsShouldIssueASingleQuery() throws Exception {
+        // Given - history rows must not trigger one user select each
+        statementsFor(post("/wallet/transfer")
+                .header("Authorization", "Bearer " + senderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"wallet_number\":\"" + recipientWalletNumber + "\",\"amount\":1000}"));
+
+        // When
+        List<String> statements = statementsFor(get("/wallet/transactions")
+                .header("Authorization", "Bearer " + senderToken));
+
+        // Then
+        assertThat(statements).hasSize(1);
+        assertThat(statements).noneMatch(sql -> sql.contains("user_entity"));
+    }
+
+    @Test
+    void transferShouldNotLoadEitherUser() throws Exception {
+        // When
+        List<String> statements = statementsFor(post("/wallet/transfer")
+                .header("Authorization", "Bearer " + senderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"wallet_number\":\"" + recipientWalletNumber + "\",\"amount\":1000}"));
+
+        // Then - two wallet id lookups, debit, credit, the journal entry and one batched insert of both postings
+        assertThat(statements).hasSize(6);
+        assertThat(statements).noneMatch(sql -> sql.contains("user_entity"));
+    }
+
+    @Test
+    void depositShouldOnlyReadTheUsersEmail() throws Exception {
+        // Given
+        when(paystackService.initializeTransaction(anyLong(), anyString(), anyString()))
+                .thenReturn(new PaystackService.PaystackInitResponse("ref", "https://checkout.paystack.com/ref"));
+
+        // When
+        List<String> statements = statementsFor(post("/wallet/deposit")
+                .header("Authorization", "Bearer " + senderToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":5000}"));
+
+        // Then - the email projection and the pending transaction insert
+        assertThat(statements).hasSize(2);
+        assertThat(statements.get(0)).contains("email").doesNotContain("google_id");
+    }
+
+    /**
+     * Records the SQL Hibernate prepares on the current thread while recording is on.
+     * MockMvc runs the request on the test thread, so background jobs are not counted.
+     * Sequence calls are skipped: pooled ids only hit the sequence once per 50 rows, so whether
+     * a request pays for one depends on what ran before it.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+        private static final ThreadLocal<List<String>> LAST = new ThreadLocal<>();
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static void stop() {
+            LAST.set(RECORDED.get());
+            RECORDED.remove();
+        }
+
+        static List<String> statements() {
+            return LAST.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> recorded = RECORDED.get();
+            String normalized = sql.toLowerCase();
+            if (recorded != null && !isSequenceCall(normalized)) {
+                recorded.add(normalized);
+            }
+            return sql;
+        }
+
+        private static boolean isSequenceCall(String sql) {
+            return sql.contains("nextval") || sql.contains("next value for");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.stage8.wallet.controller;
+
+import com.stage8.wallet.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhook-inbox-endpoint;DB_CLOSE_DELAY=-1",
+        "management.endpoints.web.exposure.include=health,webhookinbox",
+        "wallet.operator.user-ids=900001"
+})
+class WebhookInboxEndpointTest {
+
+    private static final long OPERATOR_USER_ID = 900001L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private String bearer(long userId) {
+        return "Bearer " + jwtService.generateToken(Long.toString(userId));
+    }
+
+    @Test
+    void walletUserShouldBeForbidden() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/actuator/webhookinbox").header("Authorization", bearer(12345L)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/actuator/webhookinbox").header("Authorization", bearer(12345L)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousCallerShouldBeUnauthorized() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/actuator/webhookinbox"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void operatorShouldSeeTheBacklog() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/actuator/webhookinbox").header("Authorization", bearer(OPERATOR_USER_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.failed").isNumber());
+    }
+}
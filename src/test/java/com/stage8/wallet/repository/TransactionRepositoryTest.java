@@ -0,0 +1,155 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.stage8.wallet.repository.TransactionSpecifications.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class TransactionRepositoryTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UserEntity owner;
+    private final List<Long> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        owner = persistUser("owner");
+        UserEntity other = persistUser("other");
+
+        // Two rows share a timestamp, so the id has to break the tie
+        Long oldest = persistTransaction(owner, BASE_TIME);
+        Long tiedLow = persistTransaction(owner, BASE_TIME.plusMinutes(1));
+        Long tiedHigh = persistTransaction(owner, BASE_TIME.plusMinutes(1));
+        Long newest = persistTransaction(owner, BASE_TIME.plusMinutes(2));
+        persistTransaction(other, BASE_TIME.plusMinutes(3));
+        entityManager.clear();
+
+        newestFirst.addAll(List.of(newest, tiedHigh, tiedLow, oldest));
+    }
+
+    private UserEntity persistUser(String name) {
+        return entityManager.persistAndFlush(UserEntity.builder()
+                .email(name + "@example.com")
+                .name(name)
+                .googleId("google-" + name)
+                .build());
+    }
+
+    private Long persistTransaction(UserEntity user, LocalDateTime createdAt) {
+        return persistTransaction(user, createdAt, TransactionType.DEPOSIT, TransactionStatus.SUCCESS, 1_000L);
+    }
+
+    private Long persistTransaction(UserEntity user, LocalDateTime createdAt, TransactionType type,
+                                    TransactionStatus status, long amount) {
+        return entityManager.persistAndFlush(TransactionEntity.builder()
+                .reference("REF-" + createdAt + "-" + System.nanoTime())
+                .user(user)
+                .type(type)
+                .status(status)
+                .amount(amount)
+                .createdAt(createdAt)
+                .build()).getId();
+    }
+
+    @Test
+    void shouldReturnNewestTransactionsFirst() {
+        // When
+        List<TransactionSummary> page = transactionRepository.findHistory(ownedBy(owner.getId()), 2);
+
+        // Then
+        assertThat(page).extracting(TransactionSummary::id).containsExactly(newestFirst.get(0), newestFirst.get(1));
+        assertThat(page.get(0).type()).isEqualTo(TransactionType.DEPOSIT);
+        assertThat(page.get(0).createdAt()).isEqualTo(BASE_TIME.plusMinutes(2));
+    }
+
+    @Test
+    void shouldWalkEveryTransactionExactlyOnceAcrossPages() {
+        // Given
+        List<Long> seen = new ArrayList<>();
+        List<TransactionSummary> page = transactionRepository.findHistory(ownedBy(owner.getId()), 2);
+
+        // When
+        while (!page.isEmpty()) {
+            page.forEach(row -> seen.add(row.id()));
+            TransactionSummary last = page.get(page.size() - 1);
+            page = transactionRepository.findHistory(
+                    ownedBy(owner.getId()).and(olderThan(last.createdAt(), last.id())), 2);
+        }
+
+        // Then
+        assertThat(seen).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void shouldResumeInsideATimestampTie() {
+        // When - cursor sits on the higher id of the two rows sharing a timestamp
+        List<TransactionSummary> page = transactionRepository.findHistory(
+                ownedBy(owner.getId()).and(olderThan(BASE_TIME.plusMinutes(1), newestFirst.get(1))), 10);
+
+        // Then
+        assertThat(page).extracting(TransactionSummary::id).containsExactly(newestFirst.get(2), newestFirst.get(3));
+    }
+
+    @Test
+    void shouldFilterByTypeAndStatus() {
+        // Given
+        Long pendingDeposit = persistTransaction(owner, BASE_TIME.plusMinutes(5),
+                TransactionType.DEPOSIT, TransactionStatus.PENDING, 5_000L);
+        persistTransaction(owner, BASE_TIME.plusMinutes(6), TransactionType.TRANSFER, TransactionStatus.PENDING, -5_000L);
+
+        // When
+        List<TransactionSummary> page = transactionRepository.findHistory(ownedBy(owner.getId())
+                .and(hasType(TransactionType.DEPOSIT))
+                .and(hasStatus(TransactionStatus.PENDING)), 10);
+
+        // Then
+        assertThat(page).extracting(TransactionSummary::id).containsExactly(pendingDeposit);
+    }
+
+    @Test
+    void shouldFilterByDateRangeWithExclusiveUpperBound() {
+        // When
+        List<TransactionSummary> page = transactionRepository.findHistory(ownedBy(owner.getId())
+                .and(createdAtOrAfter(BASE_TIME.plusMinutes(1)))
+                .and(createdBefore(BASE_TIME.plusMinutes(2))), 10);
+
+        // Then
+        assertThat(page).extracting(TransactionSummary::id).containsExactly(newestFirst.get(1), newestFirst.get(2));
+    }
+
+    @Test
+    void shouldCompareAmountsByMagnitude() {
+        // Given - outgoing transfers are stored negative
+        Long largeTransfer = persistTransaction(owner, BASE_TIME.plusMinutes(5),
+                TransactionType.TRANSFER, TransactionStatus.SUCCESS, -50_000L);
+
+        // When
+        List<TransactionSummary> page = transactionRepository.findHistory(ownedBy(owner.getId())
+                .and(amountAtLeast(10_000L))
+                .and(amountAtMost(50_000L)), 10);
+
+        // Then
+        assertThat(page).extracting(TransactionSummary::id).containsExactly(largeTransfer);
+    }
+}
@@ -0,0 +1,114 @@
+package com.stage8.wallet.repository;
+
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.model.projection.WalletRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class WalletRepositoryTest {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UserEntity testUser;
+    private WalletEntity testWallet;
+
+    @BeforeEach
+    void setUp() {
+        testUser = entityManager.persistAndFlush(UserEntity.builder()
+                .email("wallet@example.com")
+                .name("Wallet User")
+                .googleId("google-wallet")
+                .build());
+
+        testWallet = entityManager.persistAndFlush(WalletEntity.builder()
+                .user(testUser)
+                .walletNumber("1234567890")
+                .balance(10_000L)
+                .build());
+    }
+
+    private Long reloadBalance() {
+        entityManager.clear();
+        return entityManager.find(WalletEntity.class, testWallet.getId()).getBalance();
+    }
+
+    @Test
+    void shouldFindWalletIdByUserId() {
+        // When
+        Optional<Long> walletId = walletRepository.findIdByUserId(testUser.getId());
+
+        // Then
+        assertThat(walletId).contains(testWallet.getId());
+    }
+
+    @Test
+    void shouldFindWalletRefByWalletNumber() {
+        // When
+        Optional<WalletRef> ref = walletRepository.findRefByWalletNumber("1234567890");
+
+        // Then
+        assertThat(ref).isPresent();
+        assertThat(ref.get().getId()).isEqualTo(testWallet.getId());
+        assertThat(ref.get().getUserId()).isEqualTo(testUser.getId());
+    }
+
+    @Test
+    void shouldDebitWhenBalanceIsSufficient() {
+        // When
+        int updated = walletRepository.debit(testWallet.getId(), 4_000L);
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloadBalance()).isEqualTo(6_000L);
+    }
+
+    @Test
+    void shouldDebitEntireBalance() {
+        // When
+        int updated = walletRepository.debit(testWallet.getId(), 10_000L);
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloadBalance()).isZero();
+    }
+
+    @Test
+    void shouldNotDebitWhenBalanceIsInsufficient() {
+        // When
+        int updated = walletRepository.debit(testWallet.getId(), 10_001L);
+
+        // Then
+        assertThat(updated).isZero();
+        assertThat(reloadBalance()).isEqualTo(10_000L);
+    }
+
+    @Test
+    void shouldCreditWallet() {
+        // When
+        int updated = walletRepository.credit(testWallet.getId(), 2_500L);
+
+        // Then
+        assertThat(updated).isEqualTo(1);
+        assertThat(reloadBalance()).isEqualTo(12_500L);
+    }
+
+    @Test
+    void shouldNotUpdateUnknownWallet() {
+        // When / Then
+        assertThat(walletRepository.debit(-1L, 100L)).isZero();
+        assertThat(walletRepository.credit(-1L, 100L)).isZero();
+    }
+}
@@ -0,0 +1,191 @@
+package com.stage8.wallet.security;
+
+import com.stage8.wallet.model.entity.ApiKeyEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.enums.Permission;
+import com.stage8.wallet.repository.ApiKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyCacheTest {
+
+    private static final String KEY_HASH = "a".repeat(64);
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ApiKeyCache apiKeyCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        apiKeyCache = new ApiKeyCache(apiKeyRepository, meterRegistry,
+                Duration.ofMinutes(1), 100, Duration.ofMinutes(1), 100, 1000, 0.01, Duration.ofMinutes(1));
+    }
+
+    private ApiKeyEntity apiKey() {
+        return ApiKeyEntity.builder()
+                .id(5L)
+                .keyHash(KEY_HASH)
+                .name("service")
+                .owner(UserEntity.builder().id(42L).build())
+                .permissions(Set.of(Permission.READ, Permission.TRANSFER))
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()));
+
+        // When
+        Optional<ApiKeyPrincipal> first = apiKeyCache.find(KEY_HASH);
+        Optional<ApiKeyPrincipal> second = apiKeyCache.find(KEY_HASH);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(first.get().principal().getUserId()).isEqualTo(42L);
+        assertThat(first.get().principal().hasPermission(Permission.READ)).isTrue();
+        assertThat(first.get().principal().hasPermission(Permission.TRANSFER)).isTrue();
+        assertThat(first.get().principal().hasPermission(Permission.DEPOSIT)).isFalse();
+        assertThat(second).containsSame(first.get());
+        verify(apiKeyRepository, times(1)).findByKeyHash(KEY_HASH);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "apiKeyPrincipals").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldReloadAfterEviction() {
+        // Given
+        ApiKeyEntity revoked = apiKey();
+        revoked.setRevoked(true);
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()), Optional.of(revoked));
+        apiKeyCache.find(KEY_HASH);
+
+        // When
+        apiKeyCache.evict(KEY_HASH);
+
+        // Then
+        assertThat(apiKeyCache.find(KEY_HASH)).hasValueSatisfying(principal ->
+                assertThat(principal.revoked()).isTrue());
+    }
+
+    @Test
+    void shouldDeferEvictionUntilTransactionCommits() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()));
+        apiKeyCache.find(KEY_HASH);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            apiKeyCache.evict(KEY_HASH);
+            apiKeyCache.find(KEY_HASH);
+            verify(apiKeyRepository, times(1)).findByKeyHash(KEY_HASH);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        apiKeyCache.find(KEY_HASH);
+        verify(apiKeyRepository, times(2)).findByKeyHash(KEY_HASH);
+    }
+
+    @Test
+    void shouldRememberUnknownKeys() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.empty());
+
+        // When
+        Optional<ApiKeyPrincipal> first = apiKeyCache.find(KEY_HASH);
+        Optional<ApiKeyPrincipal> second = apiKeyCache.find(KEY_HASH);
+
+        // Then
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        verify(apiKeyRepository, times(1)).findByKeyHash(KEY_HASH);
+        assertThat(meterRegistry.get("wallet.api-key.lookups.skipped").tag("reason", "negative_cache")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRejectKeysMissingFromBloomFilterWithoutDatabaseLookup() {
+        // Given
+        String unknownHash = "b".repeat(64);
+        when(apiKeyRepository.findAllKeyHashes()).thenReturn(List.of(KEY_HASH));
+        apiKeyCache.rebuildBloomFilter();
+
+        // When
+        Optional<ApiKeyPrincipal> result = apiKeyCache.find(unknownHash);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(apiKeyRepository, never()).findByKeyHash(unknownHash);
+        assertThat(meterRegistry.get("wallet.api-key.lookups.skipped").tag("reason", "bloom_filter")
+                .counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldAcceptKeysRegisteredAfterRebuild() {
+        // Given
+        when(apiKeyRepository.findAllKeyHashes()).thenReturn(List.of());
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()));
+        apiKeyCache.rebuildBloomFilter();
+
+        // When
+        apiKeyCache.register(KEY_HASH);
+
+        // Then
+        assertThat(apiKeyCache.find(KEY_HASH)).isPresent();
+    }
+
+    @Test
+    void shouldAcceptKeysCreatedOnOtherNodesAfterSync() {
+        // Given - the key was created on another node after this one rebuilt its filter
+        when(apiKeyRepository.findAllKeyHashes()).thenReturn(List.of());
+        when(apiKeyRepository.findKeyHashesCreatedSince(any())).thenReturn(List.of(KEY_HASH));
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()));
+        apiKeyCache.rebuildBloomFilter();
+        assertThat(apiKeyCache.find(KEY_HASH)).isEmpty();
+
+        // When
+        apiKeyCache.syncBloomFilter();
+
+        // Then
+        assertThat(apiKeyCache.find(KEY_HASH)).isPresent();
+    }
+
+    @Test
+    void shouldKeepKeysRegisteredWhileRebuilding() {
+        // Given - the key commits after the rebuild has read the table
+        when(apiKeyRepository.findAllKeyHashes()).thenAnswer(invocation -> {
+            apiKeyCache.register(KEY_HASH);
+            return List.of();
+        });
+        when(apiKeyRepository.findByKeyHash(KEY_HASH)).thenReturn(Optional.of(apiKey()));
+
+        // When
+        apiKeyCache.rebuildBloomFilter();
+
+        // Then
+        assertThat(apiKeyCache.find(KEY_HASH)).isPresent();
+    }
+}
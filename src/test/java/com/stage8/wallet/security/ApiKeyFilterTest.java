@@ -0,0 +1,120 @@
+package com.stage8.wallet.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.stage8.wallet.service.ApiKeyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyFilterTest {
+
+    private static final String API_KEY = "sk_live_test";
+    private static final String KEY_HASH = "hash";
+
+    @Mock
+    private ApiKeyCache apiKeyCache;
+
+    @Mock
+    private ApiKeyService apiKeyService;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private ApiKeyFilter apiKeyFilter;
+
+    private final ListAppender<ILoggingEvent> logEvents = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.clearContext();
+        logEvents.start();
+        ((Logger) LoggerFactory.getLogger(ApiKeyFilter.class)).addAppender(logEvents);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ((Logger) LoggerFactory.getLogger(ApiKeyFilter.class)).detachAppender(logEvents);
+    }
+
+    private void presentKey(ApiKeyPrincipal apiKeyPrincipal) {
+        when(request.getHeader("x-api-key")).thenReturn(API_KEY);
+        when(apiKeyService.hashApiKey(API_KEY)).thenReturn(KEY_HASH);
+        when(apiKeyCache.find(KEY_HASH)).thenReturn(Optional.of(apiKeyPrincipal));
+    }
+
+    @Test
+    void shouldAuthenticateValidApiKey() throws ServletException, IOException {
+        // Given
+        WalletPrincipal principal = WalletPrincipal.forUser(42L);
+        presentKey(new ApiKeyPrincipal(7L, principal, Instant.now().plusSeconds(60), false));
+
+        // When
+        apiKeyFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(principal);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void ownerlessKeyShouldBeRejectedWithStructuredWarning() throws ServletException, IOException {
+        // Given
+        presentKey(new ApiKeyPrincipal(7L, null, null, false));
+        when(request.getRequestURI()).thenReturn("/wallet/balance");
+
+        // When
+        apiKeyFilter.doFilterInternal(request, response, filterChain);
+
+        // Then - rejected by validation, not by an exception in the filter
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(logEvents.list).extracting(ILoggingEvent::getLevel).containsExactly(Level.WARN);
+        ILoggingEvent rejection = logEvents.list.get(0);
+        assertThat(rejection.getFormattedMessage()).isEqualTo("API key rejected");
+        assertThat(rejection.getKeyValuePairs())
+                .anyMatch(pair -> pair.key.equals("keyId") && Long.valueOf(7L).equals(pair.value))
+                .anyMatch(pair -> pair.key.equals("reason") && "API key has no owner".equals(pair.value));
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void revokedKeyShouldNotAuthenticate() throws ServletException, IOException {
+        // Given
+        presentKey(new ApiKeyPrincipal(7L, WalletPrincipal.forUser(42L), null, true));
+
+        // When
+        apiKeyFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+}
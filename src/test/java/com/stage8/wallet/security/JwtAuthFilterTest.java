@@ -15,6 +15,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -48,6 +50,10 @@ class JwtAuthFilterTest {
         SecurityContextHolder.clearContext();
     }
 
+    private static JwtService.VerifiedToken verifiedToken(String subject) {
+        return new JwtService.VerifiedToken(subject, new Date(System.currentTimeMillis() + 60_000));
+    }
+
     @Test
     void shouldAuthenticateValidBearerToken() throws ServletException, IOException {
         // Given
@@ -55,8 +61,7 @@ class JwtAuthFilterTest {
         String userId = "12345";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + validToken);
-        when(jwtService.extractSubject(validToken)).thenReturn(userId);
-        when(jwtService.isTokenValid(validToken)).thenReturn(true);
+        when(jwtService.verify(validToken)).thenReturn(Optional.of(verifiedToken(userId)));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -66,10 +71,11 @@ class JwtAuthFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication())
                 .isInstanceOf(UsernamePasswordAuthenticationToken.class);
         assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isEqualTo(WalletPrincipal.forUser(Long.parseLong(userId)));
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName())
                 .isEqualTo(userId);
 
-        verify(jwtService).extractSubject(validToken);
-        verify(jwtService).isTokenValid(validToken);
+        verify(jwtService).verify(validToken);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -83,8 +89,7 @@ class JwtAuthFilterTest {
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtService, never()).extractSubject(anyString());
-        verify(jwtService, never()).isTokenValid(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -98,8 +103,7 @@ class JwtAuthFilterTest {
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtService, never()).extractSubject(anyString());
-        verify(jwtService, never()).isTokenValid(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -109,16 +113,14 @@ class JwtAuthFilterTest {
         String invalidToken = "invalid.jwt.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + invalidToken);
-        when(jwtService.extractSubject(invalidToken)).thenReturn("12345");
-        when(jwtService.isTokenValid(invalidToken)).thenReturn(false);
+        when(jwtService.verify(invalidToken)).thenReturn(Optional.empty());
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtService).extractSubject(invalidToken);
-        verify(jwtService).isTokenValid(invalidToken);
+        verify(jwtService).verify(invalidToken);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -128,8 +130,7 @@ class JwtAuthFilterTest {
         String expiredToken = "expired.jwt.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + expiredToken);
-        when(jwtService.extractSubject(expiredToken)).thenReturn("12345");
-        when(jwtService.isTokenValid(expiredToken)).thenReturn(false);
+        when(jwtService.verify(expiredToken)).thenReturn(Optional.empty());
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -146,15 +147,14 @@ class JwtAuthFilterTest {
         String expectedUserId = "67890";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractSubject(token)).thenReturn(expectedUserId);
-        when(jwtService.isTokenValid(token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(verifiedToken(expectedUserId)));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
-        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName())
                 .isEqualTo(expectedUserId);
         verify(filterChain).doFilter(request, response);
     }
@@ -165,8 +165,7 @@ class JwtAuthFilterTest {
         String token = "valid.jwt.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractSubject(token)).thenReturn("12345");
-        when(jwtService.isTokenValid(token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(verifiedToken("12345")));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -181,7 +180,7 @@ class JwtAuthFilterTest {
         String malformedToken = "malformed.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + malformedToken);
-        when(jwtService.extractSubject(malformedToken)).thenThrow(new RuntimeException("JWT parsing failed"));
+        when(jwtService.verify(malformedToken)).thenThrow(new RuntimeException("JWT parsing failed"));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -197,15 +196,14 @@ class JwtAuthFilterTest {
         String token = "token.with.null.subject";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractSubject(token)).thenReturn(null);
+        when(jwtService.verify(token)).thenReturn(Optional.of(verifiedToken(null)));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtService).extractSubject(token);
-        verify(jwtService, never()).isTokenValid(anyString());
+        verify(jwtService).verify(token);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -218,8 +216,7 @@ class JwtAuthFilterTest {
         SecurityContextHolder.getContext().setAuthentication(existingAuth);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractSubject(token)).thenReturn("12345");
-        // Don't mock isTokenValid as it won't be called due to existing auth
+        // The token is not even verified when a previous filter already authenticated the request
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -229,6 +226,7 @@ class JwtAuthFilterTest {
                 .isEqualTo(existingAuth);
         assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
                 .isEqualTo("existingUser");
+        verify(jwtService, never()).verify(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -251,7 +249,7 @@ class JwtAuthFilterTest {
         String token = "valid.jwt.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer  " + token);
-        when(jwtService.extractSubject(" " + token)).thenThrow(new RuntimeException("Invalid token format"));
+        when(jwtService.verify(" " + token)).thenThrow(new RuntimeException("Invalid token format"));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -268,8 +266,7 @@ class JwtAuthFilterTest {
         String userId = "12345";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractSubject(token)).thenReturn(userId);
-        when(jwtService.isTokenValid(token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(verifiedToken(userId)));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -1,15 +1,16 @@
 package com.stage8.wallet.security;
 
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -23,9 +24,7 @@ class JwtServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
-        ReflectionTestUtils.setField(jwtService, "secretKey", TEST_SECRET);
-        ReflectionTestUtils.setField(jwtService, "expiration", TEST_EXPIRATION);
+        jwtService = new JwtService(TEST_SECRET, TEST_EXPIRATION);
     }
 
     @Test
@@ -104,11 +103,8 @@ class JwtServiceTest {
     @Test
     void shouldRejectExpiredToken() {
         // Given - create token with past expiration
-        ReflectionTestUtils.setField(jwtService, "expiration", -1000L); // -1 second
-        String expiredToken = jwtService.generateToken("12345");
-
-        // Reset expiration for validation
-        ReflectionTestUtils.setField(jwtService, "expiration", TEST_EXPIRATION);
+        JwtService expiredIssuer = new JwtService(TEST_SECRET, -1000L); // -1 second
+        String expiredToken = expiredIssuer.generateToken("12345");
 
         // When
         boolean isValid = jwtService.isTokenValid(expiredToken);
@@ -122,16 +118,91 @@ class JwtServiceTest {
         // Given - create token with one secret
         String token = jwtService.generateToken("12345");
 
-        // Change the secret key
-        ReflectionTestUtils.setField(jwtService, "secretKey", "different-secret-key-that-is-at-least-256-bits-long-for-hmac");
+        // Verify with a different secret key
+        JwtService otherService = new JwtService("different-secret-key-that-is-at-least-256-bits-long-for-hmac", TEST_EXPIRATION);
 
         // When
-        boolean isValid = jwtService.isTokenValid(token);
+        boolean isValid = otherService.isTokenValid(token);
 
         // Then
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    void shouldVerifyTokenInSingleCall() {
+        // Given
+        String token = jwtService.generateToken("12345");
+
+        // When
+        Optional<JwtService.VerifiedToken> verified = jwtService.verify(token);
+
+        // Then
+        assertThat(verified).isPresent();
+        assertThat(verified.get().subject()).isEqualTo("12345");
+        assertThat(verified.get().expiration().getTime()).isGreaterThan(System.currentTimeMillis());
+    }
+
+    @Test
+    void shouldNotVerifyExpiredForgedOrMalformedTokens() {
+        // Given
+        String expiredToken = new JwtService(TEST_SECRET, -1000L).generateToken("12345");
+        String forgedToken = new JwtService("different-secret-key-that-is-at-least-256-bits-long-for-hmac", TEST_EXPIRATION)
+                .generateToken("12345");
+
+        // When/Then
+        assertThat(jwtService.verify(expiredToken)).isEmpty();
+        assertThat(jwtService.verify(forgedToken)).isEmpty();
+        assertThat(jwtService.verify("this.is.not.a.valid.jwt")).isEmpty();
+        assertThat(jwtService.verify(null)).isEmpty();
+    }
+
+    @Test
+    void shouldServeRepeatedVerificationsFromCache() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService cachingService = new JwtService(TEST_SECRET, TEST_EXPIRATION, true, 100, meterRegistry);
+        String token = cachingService.generateToken("12345");
+
+        // When
+        Optional<JwtService.VerifiedToken> first = cachingService.verify(token);
+        Optional<JwtService.VerifiedToken> second = cachingService.verify(token);
+
+        // Then
+        assertThat(first).isPresent();
+        assertThat(second).containsSame(first.get());
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "verifiedJwts").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotServeCachedTokenPastItsExpiry() throws InterruptedException {
+        // Given - token valid for ~2 seconds (JWT expiry has second precision)
+        JwtService cachingService = new JwtService(TEST_SECRET, 2000L, true, 100, new SimpleMeterRegistry());
+        String token = cachingService.generateToken("12345");
+        assertThat(cachingService.verify(token)).isPresent();
+
+        // When
+        Thread.sleep(2500);
+
+        // Then
+        assertThat(cachingService.verify(token)).isEmpty();
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService nonCachingService = new JwtService(TEST_SECRET, TEST_EXPIRATION, false, 100, meterRegistry);
+        String token = nonCachingService.generateToken("12345");
+
+        // When
+        nonCachingService.verify(token);
+        nonCachingService.verify(token);
+
+        // Then
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "verifiedJwts").functionCounter()).isNull();
+    }
+
     @Test
     void shouldExtractExpirationDate() {
         // Given
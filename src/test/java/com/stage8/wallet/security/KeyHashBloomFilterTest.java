@@ -0,0 +1,52 @@
+package com.stage8.wallet.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyHashBloomFilterTest {
+
+    private static String randomHash(Random random) {
+        byte[] digest = new byte[32];
+        random.nextBytes(digest);
+        return HexFormat.of().formatHex(digest);
+    }
+
+    @Test
+    void shouldContainEveryAddedHashAndStayNearConfiguredFalsePositiveRate() {
+        // Given
+        Random random = new Random(7);
+        KeyHashBloomFilter filter = new KeyHashBloomFilter(10_000, 0.01);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String hash = randomHash(random);
+            added.add(hash);
+            filter.put(hash);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(randomHash(random))) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(added).allMatch(filter::mightContain);
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldRejectMalformedHashes() {
+        KeyHashBloomFilter filter = new KeyHashBloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("not-a-hash")).isFalse();
+        assertThat(filter.mightContain("z".repeat(64))).isFalse();
+    }
+}
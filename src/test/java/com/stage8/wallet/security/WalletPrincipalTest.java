@@ -0,0 +1,57 @@
+package com.stage8.wallet.security;
+
+import com.stage8.wallet.model.enums.Permission;
+import com.stage8.wallet.utility.PermissionChecker;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WalletPrincipalTest {
+
+    @Test
+    void shouldGrantEveryPermissionToJwtUsers() {
+        // Given
+        WalletPrincipal principal = WalletPrincipal.forUser(12345L);
+
+        // Then
+        for (Permission permission : Permission.values()) {
+            assertThat(principal.hasPermission(permission)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldLimitApiKeyCallersToGrantedPermissions() {
+        // Given
+        WalletPrincipal principal = WalletPrincipal.forApiKey(42L, Set.of(Permission.READ));
+
+        // Then
+        assertThat(principal.hasPermission(Permission.READ)).isTrue();
+        assertThat(principal.hasPermission(Permission.DEPOSIT)).isFalse();
+        assertThat(principal.hasPermission(Permission.TRANSFER)).isFalse();
+    }
+
+    @Test
+    void shouldExposeUserIdAsAuthenticationName() {
+        // Given
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                WalletPrincipal.forApiKey(42L, Set.of(Permission.TRANSFER)), null, null);
+
+        // Then
+        assertThat(authentication.getName()).isEqualTo("42");
+        assertThat(PermissionChecker.hasPermission(authentication, Permission.TRANSFER)).isTrue();
+        assertThat(PermissionChecker.hasPermission(authentication, Permission.READ)).isFalse();
+    }
+
+    @Test
+    void shouldDenyUnknownPrincipalTypes() {
+        // Given
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("12345", null, null);
+
+        // Then
+        assertThat(PermissionChecker.hasPermission(authentication, Permission.READ)).isFalse();
+    }
+}
@@ -0,0 +1,93 @@
+package com.stage8.wallet.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookSignatureVerifierTest {
+
+    private static final String SECRET = "test-webhook-secret";
+    private static final byte[] PAYLOAD =
+            "{\"event\":\"charge.success\",\"data\":{\"reference\":\"ref-1\",\"amount\":5000}}".getBytes(StandardCharsets.UTF_8);
+
+    private WebhookSignatureVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        verifier = new WebhookSignatureVerifier(SECRET);
+    }
+
+    private static String sign(byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(payload));
+    }
+
+    @Test
+    void shouldAcceptPaystackSignature() throws Exception {
+        // Given
+        String signature = sign(PAYLOAD);
+
+        // When / Then - repeated calls reuse the thread's Mac
+        assertThat(verifier.verify(PAYLOAD, signature)).isTrue();
+        assertThat(verifier.verify(PAYLOAD, signature)).isTrue();
+        assertThat(verifier.verify(PAYLOAD, signature.toUpperCase())).isTrue();
+    }
+
+    @Test
+    void shouldRejectTamperedPayload() throws Exception {
+        // Given
+        String signature = sign(PAYLOAD);
+        byte[] tampered = PAYLOAD.clone();
+        tampered[tampered.length - 2] = '9';
+
+        // When / Then
+        assertThat(verifier.verify(tampered, signature)).isFalse();
+        // A rejected body must not leave state behind for the next call
+        assertThat(verifier.verify(PAYLOAD, signature)).isTrue();
+    }
+
+    @Test
+    void shouldRejectMalformedSignatures() throws Exception {
+        // Given
+        String signature = sign(PAYLOAD);
+
+        // When / Then
+        assertThat(verifier.verify(PAYLOAD, null)).isFalse();
+        assertThat(verifier.verify(PAYLOAD, "")).isFalse();
+        assertThat(verifier.verify(PAYLOAD, signature.substring(2))).isFalse();
+        assertThat(verifier.verify(PAYLOAD, "zz" + signature.substring(2))).isFalse();
+        assertThat(verifier.verify(null, signature)).isFalse();
+    }
+
+    @Test
+    void shouldVerifyConcurrently() throws Exception {
+        // Given
+        String signature = sign(PAYLOAD);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> calls = IntStream.range(0, 1_000)
+                .<Callable<Boolean>>mapToObj(i -> () -> verifier.verify(PAYLOAD, signature))
+                .toList();
+
+        // When
+        List<Future<Boolean>> results = pool.invokeAll(calls);
+        pool.shutdown();
+
+        // Then
+        for (Future<Boolean> result : results) {
+            assertThat(result.get()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.exception.TransferQueueFullException;
+import com.stage8.wallet.model.entity.QueuedTransferEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.model.enums.QueuedTransferStatus;
+import com.stage8.wallet.repository.JournalEntryRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-transfer;DB_CLOSE_DELAY=-1",
+        "wallet.transfer.async.workers=1",
+        "wallet.transfer.async.batch-size=2",
+        "wallet.transfer.async.queue-capacity=3"
+})
+class AsyncTransferServiceTest {
+
+    @Autowired
+    private AsyncTransferService asyncTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    private UserEntity sender;
+    private WalletEntity senderWallet;
+    private WalletEntity recipientWallet;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        sender = fixtures.user();
+        senderWallet = fixtures.wallet(sender, 10_000L);
+        recipientWallet = fixtures.wallet(fixtures.user(), 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncTransferService.drain();
+    }
+
+    private QueuedTransferEntity transfer(String reference) {
+        return asyncTransferService.findByReference(reference).orElseThrow();
+    }
+
+    @Test
+    void shouldQueueWithoutMovingMoneyUntilDrained() {
+        // When
+        String reference = asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 4_000L);
+
+        // Then
+        assertThat(transfer(reference).getStatus()).isEqualTo(QueuedTransferStatus.QUEUED);
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(10_000L);
+
+        // When
+        asyncTransferService.drain();
+
+        // Then - the ledger entry carries the reference handed out at submission
+        QueuedTransferEntity done = transfer(reference);
+        assertThat(done.getStatus()).isEqualTo(QueuedTransferStatus.SUCCESS);
+        assertThat(done.getAttempts()).isEqualTo(1);
+        assertThat(done.getCompletedAt()).isNotNull();
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(6_000L);
+        assertThat(fixtures.balanceOf(recipientWallet)).isEqualTo(4_000L);
+        assertThat(journalEntryRepository.findAll()).anyMatch(entry -> entry.getReference().equals(reference));
+    }
+
+    @Test
+    void shouldDrainEveryBatchAndRecordFailures() {
+        // Given - three transfers across two batches; the last one cannot be funded
+        String first = asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 5_000L);
+        String unknown = asyncTransferService.submit(sender.getId(), "0000000000", 1_000L);
+        String overdraft = asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 6_000L);
+
+        // When
+        int processed = asyncTransferService.drain();
+
+        // Then
+        assertThat(processed).isEqualTo(3);
+        assertThat(transfer(first).getStatus()).isEqualTo(QueuedTransferStatus.SUCCESS);
+        assertThat(transfer(unknown).getStatus()).isEqualTo(QueuedTransferStatus.FAILED);
+        assertThat(transfer(unknown).getFailureReason()).isEqualTo("Recipient wallet not found");
+        assertThat(transfer(overdraft).getStatus()).isEqualTo(QueuedTransferStatus.FAILED);
+        assertThat(transfer(overdraft).getFailureReason()).isEqualTo("Insufficient balance");
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(5_000L);
+        assertThat(journalEntryRepository.findAll()).noneMatch(entry -> entry.getReference().equals(overdraft));
+    }
+
+    @Test
+    void shouldRejectSubmissionsOnceQueueIsFull() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 100L);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 100L))
+                .isInstanceOf(TransferQueueFullException.class)
+                .hasMessageContaining("queue is full");
+    }
+
+    @Test
+    void shouldRejectNonPositiveAmount() {
+        // When / Then
+        assertThatThrownBy(() -> asyncTransferService.submit(sender.getId(), recipientWallet.getWalletNumber(), 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,213 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.JournalEntryEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.repository.JournalEntryRepository;
+import com.stage8.wallet.repository.PendingCreditRepository;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk-transfer;DB_CLOSE_DELAY=-1",
+        "wallet.bulk-transfer.max-items=1000",
+        "wallet.hot-wallet.wallet-numbers=9000000001",
+        // Tests fold explicitly
+        "wallet.hot-wallet.fold-interval=1h"
+})
+class BulkTransferServiceTest {
+
+    private static final String HOT_WALLET_NUMBER = "9000000001";
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private PendingCreditRepository pendingCreditRepository;
+
+    @Autowired
+    private HotWalletService hotWalletService;
+
+    private UserEntity sender;
+    private WalletEntity senderWallet;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        sender = fixtures.user();
+        senderWallet = fixtures.wallet(sender, 100_000L);
+    }
+
+    private JournalEntryEntity journalEntry(String reference) {
+        return journalEntryRepository.findAll().stream()
+                .filter(entry -> entry.getReference().equals(reference))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void shouldPayEveryRecipientAsOneBalancedJournalEntry() {
+        // Given - the same wallet twice, so credits to it are combined
+        WalletEntity first = fixtures.wallet(fixtures.user(), 0L);
+        WalletEntity second = fixtures.wallet(fixtures.user(), 0L);
+        List<BulkTransferService.Item> items = List.of(
+                new BulkTransferService.Item(first.getWalletNumber(), 10_000L),
+                new BulkTransferService.Item(second.getWalletNumber(), 20_000L),
+                new BulkTransferService.Item(first.getWalletNumber(), 5_000L));
+
+        // When
+        BulkTransferService.Result result = bulkTransferService.transfer(sender.getId(), items,
+                BulkTransferService.Mode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(result.applied()).isTrue();
+        assertThat(result.succeeded()).isEqualTo(3);
+        assertThat(result.totalAmount()).isEqualTo(35_000L);
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(65_000L);
+        assertThat(fixtures.balanceOf(first)).isEqualTo(15_000L);
+        assertThat(fixtures.balanceOf(second)).isEqualTo(20_000L);
+
+        // One debit posting for the sender and one credit posting per item
+        JournalEntryEntity entry = journalEntry(result.reference());
+        assertThat(journalEntryRepository.sumPostings(entry.getId())).isZero();
+        assertThat(transactionRepository.sumPostedAmountByWalletId(senderWallet.getId())).isEqualTo(-35_000L);
+        assertThat(transactionRepository.sumPostedAmountByWalletId(first.getId())).isEqualTo(15_000L);
+    }
+
+    @Test
+    void shouldRejectWholeBatchWhenAnyItemFailsInAllOrNothingMode() {
+        // Given
+        WalletEntity recipient = fixtures.wallet(fixtures.user(), 0L);
+        List<BulkTransferService.Item> items = List.of(
+                new BulkTransferService.Item(recipient.getWalletNumber(), 10_000L),
+                new BulkTransferService.Item("0000000000", 10_000L),
+                new BulkTransferService.Item(senderWallet.getWalletNumber(), 10_000L));
+
+        // When
+        BulkTransferService.Result result = bulkTransferService.transfer(sender.getId(), items,
+                BulkTransferService.Mode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(result.applied()).isFalse();
+        assertThat(result.items()).extracting(BulkTransferService.ItemResult::status).containsExactly(
+                BulkTransferService.ItemStatus.SKIPPED,
+                BulkTransferService.ItemStatus.FAILED,
+                BulkTransferService.ItemStatus.FAILED);
+        assertThat(result.items()).extracting(BulkTransferService.ItemResult::error).containsExactly(
+                null, "Recipient wallet not found", "Cannot transfer to own wallet");
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(100_000L);
+        assertThat(fixtures.balanceOf(recipient)).isZero();
+    }
+
+    @Test
+    void shouldPayWhatTheBalanceCoversInBestEffortMode() {
+        // Given - the second item no longer fits once the first is funded, the third still does
+        WalletEntity recipient = fixtures.wallet(fixtures.user(), 0L);
+        List<BulkTransferService.Item> items = List.of(
+                new BulkTransferService.Item(recipient.getWalletNumber(), 60_000L),
+                new BulkTransferService.Item(recipient.getWalletNumber(), 50_000L),
+                new BulkTransferService.Item(recipient.getWalletNumber(), 40_000L),
+                new BulkTransferService.Item("0000000000", 100L));
+
+        // When
+        BulkTransferService.Result result = bulkTransferService.transfer(sender.getId(), items,
+                BulkTransferService.Mode.BEST_EFFORT);
+
+        // Then
+        assertThat(result.applied()).isTrue();
+        assertThat(result.items()).extracting(BulkTransferService.ItemResult::error).containsExactly(
+                null, "Insufficient balance", null, "Recipient wallet not found");
+        assertThat(fixtures.balanceOf(senderWallet)).isZero();
+        assertThat(fixtures.balanceOf(recipient)).isEqualTo(100_000L);
+        assertThat(journalEntryRepository.sumPostings(journalEntry(result.reference()).getId())).isZero();
+    }
+
+    @Test
+    void hotSenderShouldPayOutItsUnfoldedCredits() {
+        // Given - a hot merchant wallet whose only funds are a payout still in the pending credit log
+        UserEntity merchant = fixtures.user();
+        WalletEntity hotWallet = fixtures.wallet(merchant, HOT_WALLET_NUMBER, 0L);
+        hotWalletService.foldAll();
+        bulkTransferService.transfer(sender.getId(), List.of(new BulkTransferService.Item(HOT_WALLET_NUMBER, 30_000L)),
+                BulkTransferService.Mode.ALL_OR_NOTHING);
+        assertThat(fixtures.balanceOf(hotWallet)).isZero();
+        assertThat(pendingCreditRepository.findByWalletIdOrderByIdAsc(hotWallet.getId(), Limit.unlimited())).hasSize(1);
+        WalletEntity recipient = fixtures.wallet(fixtures.user(), 0L);
+
+        // When
+        BulkTransferService.Result result = bulkTransferService.transfer(merchant.getId(),
+                List.of(new BulkTransferService.Item(recipient.getWalletNumber(), 30_000L)),
+                BulkTransferService.Mode.ALL_OR_NOTHING);
+
+        // Then - the pending credit was folded in before the balance was checked
+        assertThat(result.applied()).isTrue();
+        assertThat(fixtures.balanceOf(hotWallet)).isZero();
+        assertThat(fixtures.balanceOf(recipient)).isEqualTo(30_000L);
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(70_000L);
+        assertThat(pendingCreditRepository.findByWalletIdOrderByIdAsc(hotWallet.getId(), Limit.unlimited())).isEmpty();
+        assertThat(transactionRepository.sumPostedAmountByWalletId(hotWallet.getId())).isZero();
+    }
+
+    @Test
+    void shouldPayThousandsOfRecipientsInOneCall() {
+        // Given
+        List<BulkTransferService.Item> items = new ArrayList<>();
+        List<WalletEntity> recipients = IntStream.range(0, 1_000)
+                .mapToObj(i -> fixtures.wallet(fixtures.user(), 0L))
+                .toList();
+        recipients.forEach(wallet -> items.add(new BulkTransferService.Item(wallet.getWalletNumber(), 100L)));
+
+        // When
+        BulkTransferService.Result result = bulkTransferService.transfer(sender.getId(), items,
+                BulkTransferService.Mode.ALL_OR_NOTHING);
+
+        // Then
+        assertThat(result.succeeded()).isEqualTo(1_000);
+        assertThat(fixtures.balanceOf(senderWallet)).isZero();
+        assertThat(recipients).allMatch(wallet -> fixtures.balanceOf(wallet) == 100L);
+        assertThat(journalEntryRepository.sumPostings(journalEntry(result.reference()).getId())).isZero();
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() {
+        // Given
+        List<BulkTransferService.Item> items = IntStream.range(0, 1_001)
+                .mapToObj(i -> new BulkTransferService.Item("0000000000", 100L))
+                .toList();
+
+        // When / Then
+        assertThatThrownBy(() -> bulkTransferService.transfer(sender.getId(), items, BulkTransferService.Mode.BEST_EFFORT))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(100_000L);
+    }
+}
@@ -31,6 +31,9 @@ class GoogleOAuthServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletNumberAllocator walletNumberAllocator;
+
     @Mock
     private GoogleIdTokenVerifier verifier;
 
@@ -42,6 +45,7 @@ class GoogleOAuthServiceTest {
         googleOAuthService = new GoogleOAuthService(
                 userRepository,
                 walletRepository,
+                walletNumberAllocator,
                 "test-client-id",
                 "test-client-secret",
                 "http://localhost:8080/auth/google/callback"
@@ -123,7 +127,7 @@ class GoogleOAuthServiceTest {
         when(userRepository.findByGoogleId("google-123")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(UserEntity.class))).thenReturn(savedUser);
-        when(walletRepository.findByWalletNumber(anyString())).thenReturn(Optional.empty());
+        when(walletNumberAllocator.allocate()).thenReturn("1234567897");
         when(walletRepository.save(any(WalletEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -222,7 +226,7 @@ class GoogleOAuthServiceTest {
         when(userRepository.findByGoogleId("google-123")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(UserEntity.class))).thenReturn(savedUser);
-        when(walletRepository.findByWalletNumber(anyString())).thenReturn(Optional.empty());
+        when(walletNumberAllocator.allocate()).thenReturn("1234567897");
 
         ArgumentCaptor<WalletEntity> walletCaptor = ArgumentCaptor.forClass(WalletEntity.class);
 
@@ -278,7 +282,7 @@ class GoogleOAuthServiceTest {
         when(userRepository.findByGoogleId("google-123")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(UserEntity.class))).thenReturn(savedUser);
-        when(walletRepository.findByWalletNumber(anyString())).thenReturn(Optional.empty());
+        when(walletNumberAllocator.allocate()).thenReturn("1234567897");
 
         ArgumentCaptor<WalletEntity> walletCaptor = ArgumentCaptor.forClass(WalletEntity.class);
 
@@ -293,7 +297,7 @@ class GoogleOAuthServiceTest {
     }
 
     @Test
-    void shouldRetryWalletNumberGenerationOnCollision() {
+    void shouldTakeWalletNumberFromAllocatorWithoutQueryingWallets() {
         // Given
         GoogleOAuthService.GoogleUserInfo googleUserInfo =
                 new GoogleOAuthService.GoogleUserInfo("google-123", "new@example.com", "New User");
@@ -305,25 +309,20 @@ class GoogleOAuthServiceTest {
                 .name("New User")
                 .build();
 
-        WalletEntity existingWallet = WalletEntity.builder()
-                .walletNumber("1234567890")
-                .build();
-
         when(userRepository.findByGoogleId("google-123")).thenReturn(Optional.empty());
         when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
         when(userRepository.save(any(UserEntity.class))).thenReturn(savedUser);
+        when(walletNumberAllocator.allocate()).thenReturn("1234567897");
 
-        // First call returns existing wallet (collision), second returns empty (unique)
-        when(walletRepository.findByWalletNumber(anyString()))
-                .thenReturn(Optional.of(existingWallet))
-                .thenReturn(Optional.empty());
+        ArgumentCaptor<WalletEntity> walletCaptor = ArgumentCaptor.forClass(WalletEntity.class);
 
         // When
         googleOAuthService.processGoogleUser(googleUserInfo);
 
         // Then
-        verify(walletRepository, atLeast(2)).findByWalletNumber(anyString());
-        verify(walletRepository).save(any(WalletEntity.class));
+        verify(walletRepository).save(walletCaptor.capture());
+        assertThat(walletCaptor.getValue().getWalletNumber()).isEqualTo("1234567897");
+        verify(walletRepository, never()).findByWalletNumber(anyString());
     }
 
     @Test
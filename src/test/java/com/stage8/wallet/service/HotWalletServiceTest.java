@@ -0,0 +1,146 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.PendingCreditEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.repository.PendingCreditRepository;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot-wallet;DB_CLOSE_DELAY=-1",
+        "wallet.hot-wallet.wallet-numbers=9000000001",
+        // Tests fold explicitly
+        "wallet.hot-wallet.fold-interval=1h"
+})
+class HotWalletServiceTest {
+
+    private static final String HOT_WALLET_NUMBER = "9000000001";
+
+    @Autowired
+    private HotWalletService hotWalletService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private PendingCreditRepository pendingCreditRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private static UserEntity merchant;
+    private static WalletEntity hotWallet;
+
+    private UserEntity sender;
+    private WalletEntity senderWallet;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        if (hotWallet == null) {
+            merchant = fixtures.user();
+            hotWallet = fixtures.wallet(merchant, HOT_WALLET_NUMBER, 0L);
+        }
+        // Resolves the configured number and starts every test with no pending credits
+        hotWalletService.foldAll();
+        sender = fixtures.user();
+        senderWallet = fixtures.wallet(sender, 100_000L);
+    }
+
+    private List<PendingCreditEntity> pendingCredits() {
+        return pendingCreditRepository.findByWalletIdOrderByIdAsc(hotWallet.getId(), Limit.unlimited());
+    }
+
+    @Test
+    void creditsToHotWalletShouldBeLoggedUntilFolded() {
+        // Given
+        long balanceBefore = fixtures.balanceOf(hotWallet);
+        long postedBefore = transactionRepository.sumPostedAmountByWalletId(hotWallet.getId());
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            transferService.transfer(sender.getId(), HOT_WALLET_NUMBER, 1_000L);
+        }
+
+        // Then - the ledger is posted straight away, the balance waits for the fold
+        assertThat(hotWalletService.isHot(hotWallet.getId())).isTrue();
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(97_000L);
+        assertThat(fixtures.balanceOf(hotWallet)).isEqualTo(balanceBefore);
+        assertThat(pendingCredits()).hasSize(3);
+        assertThat(transactionRepository.sumPostedAmountByWalletId(hotWallet.getId())).isEqualTo(postedBefore + 3_000L);
+
+        // When
+        hotWalletService.foldAll();
+
+        // Then
+        assertThat(fixtures.balanceOf(hotWallet)).isEqualTo(balanceBefore + 3_000L);
+        assertThat(pendingCredits()).isEmpty();
+    }
+
+    @Test
+    void debitFromHotWalletShouldSeeUnfoldedCredits() {
+        // Given - the whole balance of the hot wallet is still in the pending log
+        long balanceBefore = fixtures.balanceOf(hotWallet);
+        transferService.transfer(sender.getId(), HOT_WALLET_NUMBER, 5_000L);
+
+        // When
+        transferService.transfer(merchant.getId(), senderWallet.getWalletNumber(), balanceBefore + 5_000L);
+
+        // Then
+        assertThat(fixtures.balanceOf(hotWallet)).isZero();
+        assertThat(fixtures.balanceOf(senderWallet)).isEqualTo(100_000L + balanceBefore);
+        assertThat(pendingCredits()).isEmpty();
+    }
+
+    @Test
+    void failedDebitShouldLeavePendingCreditsInTheLog() {
+        // Given
+        long balanceBefore = fixtures.balanceOf(hotWallet);
+        transferService.transfer(sender.getId(), HOT_WALLET_NUMBER, 2_000L);
+
+        // When / Then - the fold rolls back with the rejected transfer
+        assertThatThrownBy(() -> transferService.transfer(merchant.getId(), senderWallet.getWalletNumber(),
+                balanceBefore + 3_000L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient balance");
+        assertThat(fixtures.balanceOf(hotWallet)).isEqualTo(balanceBefore);
+        assertThat(pendingCredits()).hasSize(1);
+    }
+
+    @Test
+    void transfersBetweenOrdinaryWalletsShouldBeUnaffected() {
+        // Given
+        WalletEntity recipient = fixtures.wallet(fixtures.user(), 0L);
+
+        // When
+        transferService.transfer(sender.getId(), recipient.getWalletNumber(), 4_000L);
+
+        // Then
+        assertThat(hotWalletService.isHot(recipient.getId())).isFalse();
+        assertThat(fixtures.balanceOf(recipient)).isEqualTo(4_000L);
+        assertThat(pendingCreditRepository.findByWalletIdOrderByIdAsc(recipient.getId(), Limit.unlimited())).isEmpty();
+    }
+}
@@ -0,0 +1,229 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks at the JDBC level that ledger inserts go out as batches rather than one round trip per row.
+ * The data source is wrapped so every executeBatch and executeUpdate on the test thread is recorded.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jdbc-batching;DB_CLOSE_DELAY=-1"
+})
+class JdbcBatchingTest {
+
+    private static final String TRANSACTION_INSERT = "insert into transaction_entity";
+    private static final int IMPORT_ROWS = 50;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserEntity sender;
+    private UserEntity recipient;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        sender = fixtures.userWithWallet(1_000_000L);
+        recipient = fixtures.userWithWallet(0L);
+    }
+
+    @Test
+    void transferShouldInsertBothPostingsInOneBatch() {
+        // Given
+        String recipientWalletNumber = walletRepository.findByUser_Id(recipient.getId()).orElseThrow().getWalletNumber();
+
+        // When
+        RecordingDataSource.start();
+        try {
+            transferService.transfer(sender.getId(), recipientWalletNumber, 1_000L);
+        } finally {
+            RecordingDataSource.stop();
+        }
+
+        // Then
+        List<Execution> inserts = RecordingDataSource.executionsOf(TRANSACTION_INSERT);
+        assertThat(inserts).containsExactly(new Execution(TRANSACTION_INSERT, true, 2));
+    }
+
+    @Test
+    void bulkImportShouldFlushAsASingleBatch() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionEntity> deposits = IntStream.range(0, IMPORT_ROWS)
+                .mapToObj(i -> TransactionEntity.builder()
+                        .reference("IMPORT-" + UUID.randomUUID())
+                        .user(userRepository.getReferenceById(sender.getId()))
+                        .type(TransactionType.DEPOSIT)
+                        .status(TransactionStatus.SUCCESS)
+                        .amount(1_000L)
+                        .createdAt(now)
+                        .build())
+                .toList();
+
+        // When
+        RecordingDataSource.start();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> transactionRepository.saveAll(deposits));
+        } finally {
+            RecordingDataSource.stop();
+        }
+
+        // Then
+        List<Execution> inserts = RecordingDataSource.executionsOf(TRANSACTION_INSERT);
+        assertThat(inserts).containsExactly(new Execution(TRANSACTION_INSERT, true, IMPORT_ROWS));
+    }
+
+    /**
+     * One round trip to the database: a batch of rows or a single executeUpdate
+     */
+    record Execution(String sql, boolean batch, int rows) {
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+                            ? new RecordingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Wraps connections so prepared statements report their executions while recording is on
+     */
+    static class RecordingDataSource extends DelegatingDataSource {
+
+        private static final ThreadLocal<List<Execution>> RECORDED = new ThreadLocal<>();
+        private static final ThreadLocal<List<Execution>> LAST = new ThreadLocal<>();
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        static void start() {
+            RECORDED.set(new ArrayList<>());
+        }
+
+        static void stop() {
+            LAST.set(RECORDED.get());
+            RECORDED.remove();
+        }
+
+        static List<Execution> executionsOf(String sqlPrefix) {
+            return LAST.get().stream()
+                    .filter(execution -> execution.sql().startsWith(sqlPrefix))
+                    .map(execution -> new Execution(sqlPrefix, execution.batch(), execution.rows()))
+                    .toList();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrap(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrap(super.getConnection(username, password));
+        }
+
+        private static Connection wrap(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                            return wrap(statement, ((String) args[0]).toLowerCase());
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+            int[] pendingRows = {0};
+            return (PreparedStatement) Proxy.newProxyInstance(RecordingDataSource.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        Object result = invoke(statement, method, args);
+                        switch (method.getName()) {
+                            case "addBatch" -> pendingRows[0]++;
+                            case "executeBatch" -> {
+                                record(new Execution(sql, true, pendingRows[0]));
+                                pendingRows[0] = 0;
+                            }
+                            case "executeUpdate" -> record(new Execution(sql, false, 1));
+                            default -> {
+                            }
+                        }
+                        return result;
+                    });
+        }
+
+        private static void record(Execution execution) {
+            List<Execution> recorded = RECORDED.get();
+            if (recorded != null) {
+                recorded.add(execution);
+            }
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.stage8.wallet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReferenceGeneratorTest {
+
+    @Test
+    void shouldGenerateSixteenCharacterUppercaseReferences() {
+        // Given
+        ReferenceGenerator generator = new ReferenceGenerator(7);
+
+        // When
+        String reference = generator.next();
+
+        // Then
+        assertThat(reference).hasSize(ReferenceGenerator.LENGTH);
+        assertThat(reference).matches("[0-9A-Z]{16}");
+    }
+
+    @Test
+    void shouldGenerateStrictlyIncreasingReferences() {
+        // Given
+        ReferenceGenerator generator = new ReferenceGenerator(1);
+        List<String> references = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 100_000; i++) {
+            references.add(generator.next());
+        }
+
+        // Then
+        for (int i = 1; i < references.size(); i++) {
+            assertThat(references.get(i)).isGreaterThan(references.get(i - 1));
+        }
+    }
+
+    @Test
+    void shouldNotCollideAcrossThreadsOrNodes() throws InterruptedException {
+        // Given
+        ReferenceGenerator nodeA = new ReferenceGenerator(1);
+        ReferenceGenerator nodeB = new ReferenceGenerator(2);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            ReferenceGenerator generator = t % 2 == 0 ? nodeA : nodeB;
+            pool.submit(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    references.add(generator.next());
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(references).hasSize(8 * 25_000);
+    }
+
+    @Test
+    void shouldRejectNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new ReferenceGenerator(4096))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRequireNodeId() {
+        assertThatThrownBy(() -> new ReferenceGenerator((Long) null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("wallet.reference.node-id");
+    }
+}
@@ -0,0 +1,94 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Exports a million transactions with a heap far smaller than the materialized history would need.
+ *
+ * Runs in its own surefire execution (tag large-export) with -Xmx128m. The database is a file-backed
+ * H2 with a small page cache so the rows themselves live on disk rather than on the test's heap.
+ */
+@Tag("large-export")
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/large-export;CACHE_SIZE=4096;MAX_MEMORY_ROWS=10000"
+})
+class TransactionExportLargeTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_CHUNK = 100_000;
+    private static final long MAX_HEAP_BYTES = 192L * 1024 * 1024;
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldExportMillionRowsInConstantMemory() {
+        assumeTrue(Runtime.getRuntime().maxMemory() <= MAX_HEAP_BYTES,
+                "Run through the large-export surefire execution so the heap limit applies");
+
+        // Given
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .email("export@example.com")
+                .name("Export User")
+                .googleId("google-export")
+                .build());
+        for (int start = 1; start <= ROWS; start += INSERT_CHUNK) {
+            jdbcTemplate.update("INSERT INTO transaction_entity (id, reference, user_id, type, status, amount, created_at) " +
+                            "SELECT NEXT VALUE FOR transaction_entity_seq, 'EXPORT-' || X, ?, 'DEPOSIT', 'SUCCESS', X, " +
+                            "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00') " +
+                            "FROM SYSTEM_RANGE(?, ?)",
+                    user.getId(), start, start + INSERT_CHUNK - 1);
+        }
+        CountingOutputStream out = new CountingOutputStream();
+
+        // When
+        long rows = exportService.export(user.getId(), TransactionExportService.ExportFormat.NDJSON, out);
+
+        // Then
+        assertThat(rows).isEqualTo(ROWS);
+        assertThat(out.lines).isEqualTo(ROWS);
+    }
+
+    /**
+     * Discards the export, keeping only the number of lines written
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import com.stage8.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    private static final long USER_ID = 3L;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TransactionExportService(transactionRepository,
+                Jackson2ObjectMapperBuilder.json().build(), transactionManager);
+    }
+
+    private static Stream<TransactionSummary> history() {
+        return Stream.of(
+                new TransactionSummary(2L, TransactionType.TRANSFER, -2_500L, TransactionStatus.SUCCESS, CREATED_AT),
+                new TransactionSummary(1L, TransactionType.DEPOSIT, 10_000L, TransactionStatus.PENDING, CREATED_AT.minusDays(1)));
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() {
+        // Given
+        when(transactionRepository.streamHistory(USER_ID)).thenReturn(history());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exportService.export(USER_ID, TransactionExportService.ExportFormat.NDJSON, out);
+
+        // Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "{\"type\":\"transfer\",\"amount\":2500,\"status\":\"success\",\"created_at\":\"2024-03-01T09:30:15\"}",
+                "{\"type\":\"deposit\",\"amount\":10000,\"status\":\"pending\",\"created_at\":\"2024-02-29T09:30:15\"}");
+    }
+
+    @Test
+    void shouldWriteCsvWithHeader() {
+        // Given
+        when(transactionRepository.streamHistory(USER_ID)).thenReturn(history());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        exportService.export(USER_ID, TransactionExportService.ExportFormat.CSV, out);
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "created_at,type,amount,status\n" +
+                "2024-03-01T09:30:15,transfer,2500,success\n" +
+                "2024-02-29T09:30:15,deposit,10000,pending\n");
+    }
+
+    @Test
+    void shouldCloseDatabaseStreamAndCommit() {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamHistory(USER_ID)).thenReturn(history().onClose(() -> closed.set(true)));
+
+        // When
+        exportService.export(USER_ID, TransactionExportService.ExportFormat.CSV, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(closed).isTrue();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        // When / Then
+        assertThat(TransactionExportService.ExportFormat.parse(" CSV ")).isEqualTo(TransactionExportService.ExportFormat.CSV);
+        assertThatThrownBy(() -> TransactionExportService.ExportFormat.parse("xlsx"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("ndjson or csv");
+    }
+}
@@ -0,0 +1,128 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.projection.TransactionSummary;
+import com.stage8.wallet.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionHistoryServiceTest {
+
+    private static final long USER_ID = 7L;
+    private static final TransactionHistoryService.HistoryFilter NO_FILTER = TransactionHistoryService.HistoryFilter.none();
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionHistoryService transactionHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        transactionHistoryService = new TransactionHistoryService(transactionRepository, 3, 5);
+    }
+
+    private static List<TransactionSummary> rows(int count) {
+        return LongStream.range(0, count)
+                .mapToObj(i -> new TransactionSummary(100 - i, TransactionType.DEPOSIT, 1_000L,
+                        TransactionStatus.SUCCESS, BASE_TIME.minusSeconds(i)))
+                .toList();
+    }
+
+    @Test
+    void shouldReturnCursorPointingAtLastRowWhenMoreRowsExist() {
+        // Given - one row beyond the page size means there is a next page
+        when(transactionRepository.findHistory(any(), eq(4))).thenReturn(rows(4));
+
+        // When
+        TransactionHistoryService.HistoryPage page = transactionHistoryService.getHistory(USER_ID, NO_FILTER, null, null);
+
+        // Then
+        assertThat(page.transactions()).hasSize(3);
+        assertThat(page.nextCursor()).isNotNull();
+        TransactionHistoryService.Cursor cursor = TransactionHistoryService.Cursor.decode(page.nextCursor());
+        assertThat(cursor.id()).isEqualTo(98L);
+        assertThat(cursor.createdAt()).isEqualTo(BASE_TIME.minusSeconds(2));
+    }
+
+    @Test
+    void shouldOmitCursorOnLastPage() {
+        // Given
+        when(transactionRepository.findHistory(any(), eq(4))).thenReturn(rows(2));
+
+        // When
+        TransactionHistoryService.HistoryPage page = transactionHistoryService.getHistory(USER_ID, NO_FILTER, null, null);
+
+        // Then
+        assertThat(page.transactions()).hasSize(2);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldSeekPastCursorPosition() {
+        // Given
+        String cursor = new TransactionHistoryService.Cursor(BASE_TIME, 42L).encode();
+        when(transactionRepository.findHistory(any(), eq(3))).thenReturn(rows(1));
+
+        // When
+        TransactionHistoryService.HistoryPage page = transactionHistoryService.getHistory(USER_ID, NO_FILTER, cursor, 2);
+
+        // Then
+        assertThat(page.transactions()).hasSize(1);
+        verify(transactionRepository).findHistory(any(), eq(3));
+    }
+
+    @Test
+    void shouldCapPageSizeAtConfiguredMaximum() {
+        // Given
+        when(transactionRepository.findHistory(any(), eq(6))).thenReturn(List.of());
+
+        // When
+        transactionHistoryService.getHistory(USER_ID, NO_FILTER, null, 1_000);
+
+        // Then
+        verify(transactionRepository).findHistory(any(), eq(6));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        // When / Then
+        assertThatThrownBy(() -> transactionHistoryService.getHistory(USER_ID, NO_FILTER, "!!not-a-cursor!!", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        // When / Then
+        assertThatThrownBy(() -> transactionHistoryService.getHistory(USER_ID, NO_FILTER, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectInvertedFilterRanges() {
+        // When / Then
+        assertThatThrownBy(() -> new TransactionHistoryService.HistoryFilter(null, null,
+                BASE_TIME, BASE_TIME.minusDays(1), null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TransactionHistoryService.HistoryFilter(null, null,
+                null, null, 5_000L, 1_000L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,218 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.repository.JournalEntryRepository;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs thousands of criss-crossing transfers (A->B racing B->A) between a handful of
+ * wallets and checks that no money is created or destroyed
+ */
+@SpringBootTest
+class TransferServiceConcurrencyTest {
+
+    private static final int WALLETS = 4;
+    private static final long INITIAL_BALANCE = 1_000_000L;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 500;
+
+    @Nested
+    @TestPropertySource(properties = {
+            "wallet.transfer.locking-mode=PESSIMISTIC",
+            "spring.datasource.url=jdbc:h2:mem:transfer-pessimistic;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+    })
+    class PessimisticLocking {
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private WalletRepository walletRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private JournalEntryRepository journalEntryRepository;
+
+        @Test
+        void shouldConserveMoneyUnderCrissCrossingTransfers() throws InterruptedException {
+            runStressTest(transferService, userRepository, walletRepository, transactionRepository, journalEntryRepository);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "wallet.transfer.locking-mode=ATOMIC",
+            "spring.datasource.url=jdbc:h2:mem:transfer-atomic;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+    })
+    class ConditionalUpdates {
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private WalletRepository walletRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private JournalEntryRepository journalEntryRepository;
+
+        @Test
+        void shouldConserveMoneyUnderCrissCrossingTransfers() throws InterruptedException {
+            runStressTest(transferService, userRepository, walletRepository, transactionRepository, journalEntryRepository);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "wallet.transfer.locking-mode=OPTIMISTIC",
+            "wallet.transfer.max-attempts=10",
+            "spring.datasource.url=jdbc:h2:mem:transfer-optimistic;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"
+    })
+    class OptimisticVersioning {
+
+        @Autowired
+        private TransferService transferService;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private WalletRepository walletRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private JournalEntryRepository journalEntryRepository;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        @Test
+        void shouldConserveMoneyUnderCrissCrossingTransfers() throws InterruptedException {
+            runStressTest(transferService, userRepository, walletRepository, transactionRepository, journalEntryRepository);
+
+            // Four wallets shared by eight threads guarantees version conflicts
+            assertThat(meterRegistry.counter("wallet.transfer.retries", "mode", "OPTIMISTIC").count())
+                    .isPositive();
+        }
+    }
+
+    private static void runStressTest(TransferService transferService,
+                                      UserRepository userRepository,
+                                      WalletRepository walletRepository,
+                                      TransactionRepository transactionRepository,
+                                      JournalEntryRepository journalEntryRepository) throws InterruptedException {
+        // Given
+        List<UserEntity> users = new ArrayList<>();
+        List<WalletEntity> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            UserEntity user = userRepository.save(UserEntity.builder()
+                    .email("stress" + i + "@example.com")
+                    .name("Stress User " + i)
+                    .googleId("google-stress-" + i)
+                    .build());
+            users.add(user);
+            wallets.add(walletRepository.save(WalletEntity.builder()
+                    .user(user)
+                    .walletNumber(String.format("900000000%d", i))
+                    .balance(INITIAL_BALANCE)
+                    .build()));
+        }
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(42L + t);
+            pool.submit(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(WALLETS);
+                    int to = (from + 1 + random.nextInt(WALLETS - 1)) % WALLETS;
+                    long amount = 100 + random.nextInt(50_000);
+                    try {
+                        transferService.transfer(users.get(from).getId(), wallets.get(to).getWalletNumber(), amount);
+                        succeeded.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        if ("Insufficient balance".equals(e.getMessage())) {
+                            rejected.incrementAndGet();
+                        } else {
+                            unexpected.add(e);
+                        }
+                    } catch (ConcurrencyFailureException e) {
+                        // Retry budget exhausted - the transfer rolled back as a whole
+                        conflicts.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+
+        // Then
+        assertThat(unexpected).isEmpty();
+        assertThat(succeeded.get() + rejected.get() + conflicts.get()).isEqualTo(THREADS * TRANSFERS_PER_THREAD);
+        assertThat(succeeded.get()).isPositive();
+
+        List<WalletEntity> finalWallets = walletRepository.findAllById(wallets.stream().map(WalletEntity::getId).toList());
+        assertThat(finalWallets).allSatisfy(wallet -> assertThat(wallet.getBalance()).isNotNegative());
+        assertThat(finalWallets.stream().mapToLong(WalletEntity::getBalance).sum())
+                .isEqualTo(WALLETS * INITIAL_BALANCE);
+
+        // Every successful transfer leaves one journal entry with a balancing debit and credit
+        assertThat(journalEntryRepository.count()).isEqualTo(succeeded.get());
+        assertThat(transactionRepository.count()).isEqualTo(2L * succeeded.get());
+        assertThat(journalEntryRepository.findAll())
+                .allSatisfy(entry -> assertThat(journalEntryRepository.sumPostings(entry.getId())).isZero());
+
+        // The maintained balances never drift from the ledger
+        assertThat(finalWallets).allSatisfy(wallet -> assertThat(wallet.getBalance())
+                .isEqualTo(INITIAL_BALANCE + transactionRepository.sumPostedAmountByWalletId(wallet.getId())));
+    }
+}
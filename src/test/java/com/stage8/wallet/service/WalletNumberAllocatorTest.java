@@ -0,0 +1,112 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.WalletNumberBlockEntity;
+import com.stage8.wallet.repository.WalletNumberBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletNumberAllocatorTest {
+
+    private static final int BLOCK_SIZE = 100;
+
+    @Mock
+    private WalletNumberBlockRepository blockRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletNumberAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new WalletNumberAllocator(blockRepository, transactionManager, BLOCK_SIZE, "test-key");
+    }
+
+    @Test
+    void shouldIssueUniqueCheckDigitedNumbersOneQueryPerBlock() {
+        // Given
+        when(blockRepository.advance(WalletNumberAllocator.COUNTER_NAME)).thenReturn(1);
+        when(blockRepository.findNextBlock(WalletNumberAllocator.COUNTER_NAME))
+                .thenReturn(Optional.of(1L), Optional.of(2L), Optional.of(3L));
+
+        // When
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+            numbers.add(allocator.allocate());
+        }
+
+        // Then
+        assertThat(numbers).hasSize(3 * BLOCK_SIZE);
+        assertThat(numbers).allSatisfy(number -> {
+            assertThat(number).matches("[1-9]\\d{9}");
+            assertThat(WalletNumberAllocator.luhnCheckDigit(number.substring(0, 9)))
+                    .isEqualTo(number.charAt(9) - '0');
+        });
+        // Three consumed blocks plus the one reserved ahead once the third was half used
+        verify(blockRepository, timeout(1000).times(4)).advance(WalletNumberAllocator.COUNTER_NAME);
+    }
+
+    @Test
+    void shouldReserveBlocksOffTheCallersThread() {
+        // Given - the caller may be inside a transaction that already holds a pooled connection
+        AtomicReference<Thread> reservingThread = new AtomicReference<>();
+        when(blockRepository.advance(WalletNumberAllocator.COUNTER_NAME)).thenAnswer(invocation -> {
+            reservingThread.compareAndSet(null, Thread.currentThread());
+            return 1;
+        });
+        when(blockRepository.findNextBlock(WalletNumberAllocator.COUNTER_NAME)).thenReturn(Optional.of(1L));
+
+        // When
+        allocator.allocate();
+
+        // Then
+        assertThat(reservingThread.get()).isNotNull().isNotEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void shouldCreateCounterRowOnFirstUse() {
+        // Given
+        when(blockRepository.advance(WalletNumberAllocator.COUNTER_NAME)).thenReturn(0);
+
+        // When
+        String number = allocator.allocate();
+
+        // Then
+        assertThat(number).hasSize(10);
+        verify(blockRepository).saveAndFlush(any(WalletNumberBlockEntity.class));
+        verify(blockRepository, never()).findNextBlock(any());
+    }
+
+    @Test
+    void shouldNotHandOutSequentialNeighbours() {
+        // Given
+        when(blockRepository.advance(WalletNumberAllocator.COUNTER_NAME)).thenReturn(1);
+        when(blockRepository.findNextBlock(WalletNumberAllocator.COUNTER_NAME)).thenReturn(Optional.of(1L));
+
+        // When
+        long first = Long.parseLong(allocator.allocate());
+        long second = Long.parseLong(allocator.allocate());
+
+        // Then
+        assertThat(Math.abs(second - first)).isGreaterThan(10);
+    }
+
+    @Test
+    void shouldComputeLuhnCheckDigit() {
+        assertThat(WalletNumberAllocator.luhnCheckDigit("7992739871")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,234 @@
+package com.stage8.wallet.service;
+
+import com.stage8.wallet.model.entity.TransactionEntity;
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.model.entity.WebhookInboxEntity;
+import com.stage8.wallet.model.enums.TransactionStatus;
+import com.stage8.wallet.model.enums.TransactionType;
+import com.stage8.wallet.model.enums.WebhookInboxStatus;
+import com.stage8.wallet.repository.TransactionRepository;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+import com.stage8.wallet.repository.WebhookInboxRepository;
+import com.stage8.wallet.support.WalletFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhook-inbox;DB_CLOSE_DELAY=-1",
+        "wallet.webhook.inbox.workers=1",
+        "wallet.webhook.inbox.max-attempts=2",
+        // Failed attempts are due again immediately
+        "wallet.webhook.inbox.retry-backoff=0s"
+})
+class WebhookInboxServiceTest {
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @Autowired
+    private WebhookInboxRepository webhookInboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private UserEntity user;
+    private WalletEntity wallet;
+
+    private WalletFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new WalletFixtures(userRepository, walletRepository);
+        user = fixtures.user();
+        wallet = fixtures.wallet(user, 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookInboxService.drain();
+    }
+
+    private String pendingDeposit(long amount) {
+        String reference = UUID.randomUUID().toString();
+        transactionRepository.save(TransactionEntity.builder()
+                .reference(reference)
+                .user(user)
+                .type(TransactionType.DEPOSIT)
+                .status(TransactionStatus.PENDING)
+                .amount(amount)
+                .build());
+        return reference;
+    }
+
+    private static String chargeSuccess(String reference, long amount) {
+        return "{\"event\":\"charge.success\",\"data\":{\"reference\":\"" + reference + "\",\"status\":\"success\"," +
+                "\"amount\":" + amount + ",\"customer\":{\"email\":\"payer@example.com\"}}}";
+    }
+
+    private WebhookInboxService.Receipt receive(String payload) {
+        return webhookInboxService.receive(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private WebhookInboxEntity inboxRow(String reference) {
+        return webhookInboxRepository.findByEventAndReference("charge.success", reference).orElseThrow();
+    }
+
+    @Test
+    void shouldStoreEventAndCreditOnlyWhenDrained() {
+        // Given
+        String reference = pendingDeposit(5_000L);
+        String payload = chargeSuccess(reference, 5_000L);
+
+        // When
+        WebhookInboxService.Receipt receipt = receive(payload);
+
+        // Then - acknowledged with the raw body kept, nothing applied yet
+        assertThat(receipt).isEqualTo(WebhookInboxService.Receipt.STORED);
+        assertThat(inboxRow(reference).getStatus()).isEqualTo(WebhookInboxStatus.RECEIVED);
+        assertThat(inboxRow(reference).getPayload()).isEqualTo(payload);
+        assertThat(inboxRow(reference).getAmount()).isEqualTo(5_000L);
+        assertThat(webhookInboxService.backlog().pending()).isPositive();
+        assertThat(fixtures.balanceOf(wallet)).isZero();
+
+        // When
+        webhookInboxService.drain();
+
+        // Then
+        WebhookInboxEntity row = inboxRow(reference);
+        assertThat(row.getStatus()).isEqualTo(WebhookInboxStatus.PROCESSED);
+        assertThat(row.getProcessedAt()).isNotNull();
+        assertThat(transactionRepository.findByReference(reference).orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.SUCCESS);
+        assertThat(fixtures.balanceOf(wallet)).isEqualTo(5_000L);
+    }
+
+    @Test
+    void batchShouldSettleEveryDepositWithOneCreditPerWallet() {
+        // Given - ten deposits into one wallet, and a success and a failure for the same deposit
+        List<String> references = IntStream.range(0, 10).mapToObj(i -> pendingDeposit(100L)).toList();
+        references.forEach(reference -> receive(chargeSuccess(reference, 100L)));
+        String contested = pendingDeposit(700L);
+        receive(chargeSuccess(contested, 700L));
+        receive("{\"event\":\"charge.failed\",\"data\":{\"reference\":\"" + contested +
+                "\",\"status\":\"failed\",\"amount\":700}}");
+
+        // When
+        int processed = webhookInboxService.drain();
+
+        // Then - the first event for a reference settles it, the second is a no-op
+        assertThat(processed).isGreaterThanOrEqualTo(12);
+        assertThat(fixtures.balanceOf(wallet)).isEqualTo(1_700L);
+        assertThat(transactionRepository.sumPostedAmountByWalletId(wallet.getId())).isEqualTo(1_700L);
+        assertThat(references).allMatch(reference -> inboxRow(reference).getStatus() == WebhookInboxStatus.PROCESSED);
+        assertThat(webhookInboxRepository.findByEventAndReference("charge.failed", contested).orElseThrow().getStatus())
+                .isEqualTo(WebhookInboxStatus.PROCESSED);
+    }
+
+    @Test
+    void redeliveredEventShouldBeStoredOnce() {
+        // Given
+        String reference = pendingDeposit(2_000L);
+        receive(chargeSuccess(reference, 2_000L));
+
+        // When
+        WebhookInboxService.Receipt receipt = receive(chargeSuccess(reference, 2_000L));
+        webhookInboxService.drain();
+
+        // Then
+        assertThat(receipt).isEqualTo(WebhookInboxService.Receipt.DUPLICATE);
+        assertThat(webhookInboxRepository.findAll()).filteredOn(row -> row.getReference().equals(reference)).hasSize(1);
+        assertThat(fixtures.balanceOf(wallet)).isEqualTo(2_000L);
+    }
+
+    @Test
+    void eventShouldFailAfterMaxAttemptsAndApplyOnReplay() {
+        // Given - the deposit row does not exist yet
+        String reference = UUID.randomUUID().toString();
+        receive(chargeSuccess(reference, 3_000L));
+
+        // When
+        webhookInboxService.drain();
+
+        // Then
+        WebhookInboxEntity failed = inboxRow(reference);
+        assertThat(failed.getStatus()).isEqualTo(WebhookInboxStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(failed.getFailureReason()).isEqualTo("Transaction not found: " + reference);
+        assertThat(webhookInboxService.backlog().failed()).isPositive();
+
+        // When - the deposit shows up and the failed event is replayed
+        transactionRepository.save(TransactionEntity.builder()
+                .reference(reference)
+                .user(user)
+                .type(TransactionType.DEPOSIT)
+                .status(TransactionStatus.PENDING)
+                .amount(3_000L)
+                .build());
+        assertThat(webhookInboxService.replayFailed(failed.getId())).isTrue();
+        webhookInboxService.drain();
+
+        // Then
+        assertThat(inboxRow(reference).getStatus()).isEqualTo(WebhookInboxStatus.PROCESSED);
+        assertThat(fixtures.balanceOf(wallet)).isEqualTo(3_000L);
+    }
+
+    @Test
+    void shouldExtractOnlyTopLevelFieldsFromFullPayload() {
+        // Given - a realistic body inside a larger buffer, with decoy fields nested below data
+        String reference = pendingDeposit(0L);
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":302961," +
+                "\"metadata\":{\"reference\":\"decoy\",\"status\":\"failed\"}," +
+                "\"reference\":\"" + reference + "\",\"amount\":\"4200\",\"log\":null," +
+                "\"customer\":{\"email\":\"payer@example.com\",\"amount\":1}," +
+                "\"authorization\":{\"bins\":[1,[2,3]]},\"status\":\"success\"}}";
+        byte[] bytes = ("#####" + payload + "#####").getBytes(StandardCharsets.UTF_8);
+
+        // When
+        WebhookInboxService.Receipt receipt = webhookInboxService.receive(bytes, 5, payload.length());
+
+        // Then
+        assertThat(receipt).isEqualTo(WebhookInboxService.Receipt.STORED);
+        WebhookInboxEntity row = inboxRow(reference);
+        assertThat(row.getPaymentStatus()).isEqualTo("success");
+        assertThat(row.getAmount()).isEqualTo(4_200L);
+        assertThat(row.getPayload()).isEqualTo(payload);
+    }
+
+    @Test
+    void unhandledEventsShouldBeIgnored() {
+        // When
+        WebhookInboxService.Receipt receipt = receive(
+                "{\"event\":\"transfer.success\",\"data\":{\"reference\":\"" + UUID.randomUUID() + "\"}}");
+
+        // Then
+        assertThat(receipt).isEqualTo(WebhookInboxService.Receipt.IGNORED);
+    }
+
+    @Test
+    void malformedPayloadShouldBeRejected() {
+        // When / Then
+        assertThatThrownBy(() -> receive("{not json"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.stage8.wallet.support;
+
+import com.stage8.wallet.model.entity.UserEntity;
+import com.stage8.wallet.model.entity.WalletEntity;
+import com.stage8.wallet.repository.UserRepository;
+import com.stage8.wallet.repository.WalletRepository;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves users and wallets for tests that run against the database
+ *
+ * Wallet numbers come from a JVM-wide counter and start with 0, so they never collide with each
+ * other, with numbers issued by WalletNumberAllocator (1-9) or with configured hot wallet numbers.
+ */
+public class WalletFixtures {
+
+    private static final AtomicLong WALLET_NUMBERS = new AtomicLong();
+
+    private final UserRepository userRepository;
+    private final WalletRepository walletRepository;
+
+    public WalletFixtures(UserRepository userRepository, WalletRepository walletRepository) {
+        this.userRepository = userRepository;
+        this.walletRepository = walletRepository;
+    }
+
+    public static String walletNumber() {
+        return String.format("0%09d", WALLET_NUMBERS.incrementAndGet());
+    }
+
+    public UserEntity user() {
+        String unique = UUID.randomUUID().toString();
+        return userRepository.save(UserEntity.builder()
+                .email(unique + "@example.com")
+                .name("Test User")
+                .googleId(unique)
+                .build());
+    }
+
+    public WalletEntity wallet(UserEntity user, long balance) {
+        return wallet(user, walletNumber(), balance);
+    }
+
+    public WalletEntity wallet(UserEntity user, String walletNumber, long balance) {
+        return walletRepository.save(WalletEntity.builder()
+                .user(user)
+                .walletNumber(walletNumber)
+                .balance(balance)
+                .build());
+    }
+
+    /**
+     * Saves a user with a wallet holding the given balance and returns the user
+     */
+    public UserEntity userWithWallet(long balance) {
+        UserEntity user = user();
+        wallet(user, balance);
+        return user;
+    }
+
+    public long balanceOf(WalletEntity wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,56 @@
+package com.stage8.wallet.utility;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestBodyReaderTest {
+
+    private final RequestBodyReader reader = new RequestBodyReader(DataSize.ofKilobytes(100));
+
+    private static byte[] body(int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 'x');
+        return bytes;
+    }
+
+    @Test
+    void shouldReuseBufferAcrossReads() throws Exception {
+        // When
+        RequestBodyReader.Body first = reader.read(new ByteArrayInputStream(body(1_000)));
+        byte[] firstBuffer = first.bytes();
+        RequestBodyReader.Body second = reader.read(new ByteArrayInputStream(body(2_000)));
+
+        // Then
+        assertThat(second.bytes()).isSameAs(firstBuffer);
+        assertThat(second.length()).isEqualTo(2_000);
+    }
+
+    @Test
+    void shouldGrowForLargerBodiesUpToTheLimit() throws Exception {
+        // When
+        RequestBodyReader.Body body = reader.read(new ByteArrayInputStream(body(100 * 1024)));
+
+        // Then
+        assertThat(body.length()).isEqualTo(100 * 1024);
+        assertThat(Arrays.copyOf(body.bytes(), body.length())).isEqualTo(body(100 * 1024));
+    }
+
+    @Test
+    void shouldRejectBodiesOverTheLimit() {
+        // When / Then
+        assertThatThrownBy(() -> reader.read(new ByteArrayInputStream(body(100 * 1024 + 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldReadEmptyBody() throws Exception {
+        // When / Then
+        assertThat(reader.read(new ByteArrayInputStream(new byte[0])).length()).isZero();
+    }
+}